@@ -0,0 +1,454 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import com.github.zhve.ideaplugin.ArtifactDependencyResolver.DependencyData;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.ArtifactRepositoryPolicy;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
+import org.eclipse.aether.ConfigurationProperties;
+import org.eclipse.aether.DefaultRepositoryCache;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.ArtifactProperties;
+import org.eclipse.aether.artifact.ArtifactType;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.collection.DependencyCollectionContext;
+import org.eclipse.aether.collection.DependencySelector;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyNode;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+import org.eclipse.aether.resolution.DependencyResult;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Resolves remote dependencies with Maven Resolver (Aether) of Maven 3.1+. All modules share one session, so
+ * descriptors, version ranges and collected graphs are read once per build, modules are resolved in parallel and
+ * modules with the same dependencies, dependency management and repositories share one result.
+ *
+ * @since 10/19/2026
+ */
+class AetherTransitiveResolver implements TransitiveResolver {
+    private final Log log;
+    private final ArtifactFactory artifactFactory;
+    private final RepositorySystem repositorySystem;
+    private final RepositorySystemSession session;
+    private final LatencyReport latencyReport;
+    private final RepositoryHealth repositoryHealth;
+    private final SnapshotPolicy snapshotPolicy;
+    private final int threads;
+    private final ConcurrentMap<String, CompletableFuture<List<Artifact>>> results = new ConcurrentHashMap<String, CompletableFuture<List<Artifact>>>();
+
+    private AetherTransitiveResolver(Log log, ArtifactFactory artifactFactory, RepositorySystem repositorySystem, RepositorySystemSession session,
+                                     LatencyReport latencyReport, RepositoryHealth repositoryHealth, SnapshotPolicy snapshotPolicy, int threads) {
+        this.log = log;
+        this.artifactFactory = artifactFactory;
+        this.repositorySystem = repositorySystem;
+        this.session = session;
+        this.latencyReport = latencyReport;
+        this.repositoryHealth = repositoryHealth;
+        this.snapshotPolicy = snapshotPolicy;
+        this.threads = threads;
+    }
+
+    /**
+     * @param log                     log
+     * @param container               container to look the repository system up in
+     * @param repositorySystemSession session of the build, ${repositorySystemSession}
+     * @param artifactFactory         factory to convert results back to Maven 2 artifacts
+     * @param exclusions              exclusions applied to all modules
+     * @param latencyReport           report to record module resolution time to
+     * @param repositoryHealth        health of remote repositories, its budgets become transfer timeouts, may be null
+     * @param snapshotPolicy          snapshot update policy of remote repositories, may be null
+     * @param threads                 number of modules resolved at once
+     * @return resolver
+     * @throws MojoFailureException if Maven Resolver is not available
+     */
+    public static TransitiveResolver create(Log log, PlexusContainer container, Object repositorySystemSession, ArtifactFactory artifactFactory,
+                                            ExclusionMatcher exclusions, LatencyReport latencyReport, RepositoryHealth repositoryHealth, SnapshotPolicy snapshotPolicy,
+                                            int threads) throws MojoFailureException {
+        if (!(repositorySystemSession instanceof RepositorySystemSession))
+            throw new MojoFailureException("resolver=aether requires Maven 3.1 or newer");
+        RepositorySystem repositorySystem;
+        try {
+            repositorySystem = (RepositorySystem) container.lookup(RepositorySystem.class.getName());
+        } catch (ComponentLookupException e) {
+            throw new MojoFailureException("resolver=aether requires Maven 3.1 or newer: " + e.getMessage());
+        }
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession((RepositorySystemSession) repositorySystemSession);
+        if (session.getCache() == null)
+            session.setCache(new DefaultRepositoryCache());
+        if (repositoryHealth != null) {
+            session.setConfigProperty(ConfigurationProperties.CONNECT_TIMEOUT, repositoryHealth.getConnectTimeout());
+            session.setConfigProperty(ConfigurationProperties.REQUEST_TIMEOUT, repositoryHealth.getReadTimeout());
+        }
+        if (!exclusions.isEmpty() && session.getDependencySelector() != null)
+            session.setDependencySelector(new ExcludingSelector(session.getDependencySelector(), exclusions, Collections.<String, ExclusionMatcher>emptyMap(), true));
+        return new AetherTransitiveResolver(log, artifactFactory, repositorySystem, session, latencyReport, repositoryHealth, snapshotPolicy, Math.max(1, threads));
+    }
+
+    /**
+     * Give transfers of the build session the budgets of the repository health, the maven2 backend resolves
+     * with this session on Maven 3
+     *
+     * @param log                     log
+     * @param repositorySystemSession session of the build, ${repositorySystemSession}
+     * @param repositoryHealth        health of remote repositories
+     * @return puts the previous values back, null if the session can't be changed
+     */
+    static Runnable applyBudgets(Log log, Object repositorySystemSession, RepositoryHealth repositoryHealth) {
+        if (!(repositorySystemSession instanceof DefaultRepositorySystemSession))
+            return null;
+        DefaultRepositorySystemSession session = (DefaultRepositorySystemSession) repositorySystemSession;
+        Map<String, Object> budgets = new LinkedHashMap<String, Object>();
+        budgets.put(ConfigurationProperties.CONNECT_TIMEOUT, repositoryHealth.getConnectTimeout());
+        budgets.put(ConfigurationProperties.REQUEST_TIMEOUT, repositoryHealth.getReadTimeout());
+        Map<String, Object> previous = new LinkedHashMap<String, Object>();
+        for (String key : budgets.keySet())
+            previous.put(key, session.getConfigProperties().get(key));
+        try {
+            for (Map.Entry<String, Object> entry : budgets.entrySet())
+                session.setConfigProperty(entry.getKey(), entry.getValue());
+        } catch (IllegalStateException e) {
+            // read-only session of newer Maven versions
+            log.debug("Transfer budgets are not applied to the build session: " + e.getMessage());
+            return null;
+        }
+        return () -> {
+            for (Map.Entry<String, Object> entry : previous.entrySet())
+                session.setConfigProperty(entry.getKey(), entry.getValue());
+        };
+    }
+
+    // TransitiveResolver
+
+    @Override
+    public Map<MavenProject, DependencyData> resolve(Map<MavenProject, DependencyData> dependencyDataMap, Set<Artifact> reactorArtifacts, BiConsumer<MavenProject, DependencyData> callback) {
+        log.info("");
+        log.info("Resolve Transitively: " + dependencyDataMap.size() + " modules in " + threads + " threads");
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Map<MavenProject, Future<DependencyData>> futures = new LinkedHashMap<MavenProject, Future<DependencyData>>();
+            for (Map.Entry<MavenProject, DependencyData> entry : dependencyDataMap.entrySet()) {
+                MavenProject project = entry.getKey();
+                DependencyData dependencyData = entry.getValue();
+                futures.put(project, executor.submit(() -> {
+                    DependencyData resolved = resolve(project, dependencyData, reactorArtifacts);
+                    if (callback != null)
+                        callback.accept(project, resolved);
+                    return resolved;
+                }));
+            }
+            Map<MavenProject, DependencyData> result = new LinkedHashMap<MavenProject, DependencyData>();
+            for (Map.Entry<MavenProject, Future<DependencyData>> entry : futures.entrySet()) {
+                try {
+                    result.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException)
+                        throw (RuntimeException) e.getCause();
+                    throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private DependencyData resolve(MavenProject project, DependencyData dependencyData, Set<Artifact> reactorArtifacts) {
+        List<Artifact> remoteData = new ArrayList<Artifact>();
+        List<Artifact> reactorData = new ArrayList<Artifact>(dependencyData.getReactorList());
+        if (dependencyData.getRemoteList().isEmpty())
+            return new DependencyData(remoteData, reactorData);
+
+        CollectRequest request = new CollectRequest();
+        Map<String, ExclusionMatcher> rootExclusions = new HashMap<String, ExclusionMatcher>();
+        StringBuilder key = new StringBuilder();
+        for (Artifact artifact : dependencyData.getRemoteList()) {
+            Dependency dependency = toDependency(artifact);
+            request.addDependency(dependency);
+            key.append(dependency).append(dependency.getArtifact().getProperty(ArtifactProperties.LOCAL_PATH, "")).append(';');
+            if (artifact.getDependencyFilter() instanceof ExclusionMatcher) {
+                rootExclusions.put(getKey(dependency.getArtifact()), (ExclusionMatcher) artifact.getDependencyFilter());
+                key.append(artifact.getDependencyFilter()).append(';');
+            }
+        }
+        key.append('|');
+        for (Object managed : project.getManagedVersionMap().values()) {
+            Dependency dependency = toDependency((Artifact) managed);
+            request.addManagedDependency(dependency);
+            key.append(dependency).append(';');
+        }
+        key.append('|');
+        @SuppressWarnings("unchecked")
+        List<ArtifactRepository> remoteRepositories = repositoryHealth == null ? project.getRemoteArtifactRepositories() : repositoryHealth.filter(project.getRemoteArtifactRepositories());
+        List<RemoteRepository> repositories = new ArrayList<RemoteRepository>();
+        for (ArtifactRepository repository : remoteRepositories)
+            repositories.add(toRemoteRepository(repository));
+        request.setRepositories(repositorySystem.newResolutionRepositories(session, repositories));
+        key.append(request.getRepositories());
+
+        JfrEvents.ModuleResolution event = JfrEvents.moduleResolution(project.getId(), "aether");
+        long start = System.currentTimeMillis();
+        boolean failed = true;
+        try {
+            List<Artifact> artifacts = getArtifacts(key.toString(), request, rootExclusions, reactorArtifacts);
+            failed = artifacts == null;
+            if (artifacts == null) {
+                artifacts = dependencyData.getRemoteList();
+                if (repositoryHealth != null)
+                    repositoryHealth.check(remoteRepositories);
+            }
+            Set<String> reactorIds = new HashSet<String>();
+            for (Artifact artifact : reactorData)
+                reactorIds.add(artifact.getDependencyConflictId());
+            for (Artifact artifact : artifacts) {
+                if (!ArtifactDependencyResolver.isReactorContains(reactorArtifacts, artifact))
+                    remoteData.add(artifact);
+                else if (reactorIds.add(artifact.getDependencyConflictId()))
+                    reactorData.add(artifact);
+            }
+        } finally {
+            long time = System.currentTimeMillis() - start;
+            latencyReport.recordModule(project.getId(), time, failed);
+            if (event != null)
+                event.end(remoteData, reactorData.size(), failed);
+            log.info("Resolved " + project.getArtifact().getId() + ": " + remoteData.size() + " remote, " + reactorData.size() + " reactor (" + time + " ms)");
+        }
+        return new DependencyData(remoteData, reactorData);
+    }
+
+    /**
+     * @return resolved artifacts in graph order, shared between modules with the same request, null if failed
+     */
+    private List<Artifact> getArtifacts(String key, CollectRequest request, Map<String, ExclusionMatcher> rootExclusions, Set<Artifact> reactorArtifacts) {
+        CompletableFuture<List<Artifact>> future = new CompletableFuture<List<Artifact>>();
+        CompletableFuture<List<Artifact>> previous = results.putIfAbsent(key, future);
+        if (previous != null)
+            return previous.join();
+        try {
+            future.complete(getArtifacts(request, rootExclusions, reactorArtifacts));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+        return future.join();
+    }
+
+    private List<Artifact> getArtifacts(CollectRequest request, Map<String, ExclusionMatcher> rootExclusions, Set<Artifact> reactorArtifacts) {
+        RepositorySystemSession requestSession = session;
+        if (!rootExclusions.isEmpty() && session.getDependencySelector() != null) {
+            requestSession = new DefaultRepositorySystemSession(session)
+                    .setDependencySelector(new ExcludingSelector(session.getDependencySelector(), null, rootExclusions, true));
+        }
+        // reactor artifacts are never downloaded
+        DependencyRequest dependencyRequest = new DependencyRequest(request, (node, parents) ->
+                node.getDependency() == null || !ArtifactDependencyResolver.isReactorContains(reactorArtifacts, toArtifact(node.getDependency())));
+        DependencyResult result;
+        try {
+            result = repositorySystem.resolveDependencies(requestSession, dependencyRequest);
+        } catch (DependencyResolutionException e) {
+            log.error(e.getMessage());
+            return null;
+        }
+        List<Artifact> artifacts = new ArrayList<Artifact>();
+        Set<String> ids = new HashSet<String>();
+        // node -> dependency trail of its parent, the first element stands for the module like in Maven 2 trails
+        Map<DependencyNode, List<String>> parentTrails = new IdentityHashMap<DependencyNode, List<String>>();
+        Deque<DependencyNode> stack = new ArrayDeque<DependencyNode>();
+        stack.push(result.getRoot());
+        while (!stack.isEmpty()) {
+            DependencyNode node = stack.pop();
+            List<String> trail = Collections.singletonList("");
+            if (node.getDependency() != null) {
+                Artifact artifact = toArtifact(node.getDependency());
+                if (!ids.add(artifact.getDependencyConflictId()))
+                    continue;
+                trail = new ArrayList<String>(parentTrails.get(node));
+                trail.add(artifact.getId());
+                artifact.setDependencyTrail(trail);
+                artifacts.add(artifact);
+            }
+            List<DependencyNode> children = node.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                parentTrails.put(children.get(i), trail);
+                stack.push(children.get(i));
+            }
+        }
+        return Collections.unmodifiableList(artifacts);
+    }
+
+    private Dependency toDependency(Artifact artifact) {
+        ArtifactType type = session.getArtifactTypeRegistry().get(artifact.getType());
+        String classifier = artifact.getClassifier() != null ? artifact.getClassifier() : type != null ? type.getClassifier() : "";
+        String extension = type != null ? type.getExtension() : artifact.getType();
+        String version = artifact.getVersion() != null ? artifact.getVersion() : artifact.getVersionRange().toString();
+        // a system jar is not looked up in repositories, Maven Resolver takes it from its local path
+        Map<String, String> properties = Collections.emptyMap();
+        if (Artifact.SCOPE_SYSTEM.equals(artifact.getScope()) && artifact.getFile() != null)
+            properties = Collections.singletonMap(ArtifactProperties.LOCAL_PATH, artifact.getFile().getPath());
+        return new Dependency(new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(), classifier, extension, version, properties, type),
+                artifact.getScope(), artifact.isOptional());
+    }
+
+    private Artifact toArtifact(Dependency dependency) {
+        org.eclipse.aether.artifact.Artifact artifact = dependency.getArtifact();
+        Artifact result = artifactFactory.createDependencyArtifact(artifact.getGroupId(),
+                artifact.getArtifactId(),
+                VersionRange.createFromVersion(artifact.getVersion()),
+                artifact.getProperty(ArtifactProperties.TYPE, artifact.getExtension()),
+                artifact.getClassifier().isEmpty() ? null : artifact.getClassifier(),
+                dependency.getScope().isEmpty() ? Artifact.SCOPE_COMPILE : dependency.getScope(),
+                dependency.isOptional());
+        result.setFile(artifact.getFile());
+        if (artifact.getFile() != null)
+            result.setResolved(true);
+        return result;
+    }
+
+    private RemoteRepository toRemoteRepository(ArtifactRepository repository) {
+        RepositoryPolicy snapshots = toPolicy(repository.getSnapshots());
+        if (snapshotPolicy != null && snapshots.isEnabled())
+            snapshots = new RepositoryPolicy(true, snapshotPolicy.getUpdatePolicy(repository.getId(), snapshots.getUpdatePolicy()), snapshots.getChecksumPolicy());
+        return new RemoteRepository.Builder(repository.getId(), "default", repository.getUrl())
+                .setReleasePolicy(toPolicy(repository.getReleases()))
+                .setSnapshotPolicy(snapshots)
+                .build();
+    }
+
+    private static RepositoryPolicy toPolicy(ArtifactRepositoryPolicy policy) {
+        return policy == null ? new RepositoryPolicy() : new RepositoryPolicy(policy.isEnabled(), policy.getUpdatePolicy(), policy.getChecksumPolicy());
+    }
+
+    private static String getKey(org.eclipse.aether.artifact.Artifact artifact) {
+        return artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getExtension() + ":" + artifact.getClassifier();
+    }
+
+    // Classes
+
+    /**
+     * Applies global exclusions everywhere and exclusions declared on a direct dependency below it,
+     * so excluded subtrees are not even collected
+     */
+    private static class ExcludingSelector implements DependencySelector {
+        private final DependencySelector delegate;
+        private final ExclusionMatcher exclusions;
+        private final Map<String, ExclusionMatcher> rootExclusions;
+        private final boolean root;
+
+        ExcludingSelector(DependencySelector delegate, ExclusionMatcher exclusions, Map<String, ExclusionMatcher> rootExclusions, boolean root) {
+            this.delegate = delegate;
+            this.exclusions = exclusions;
+            this.rootExclusions = rootExclusions;
+            this.root = root;
+        }
+
+        @Override
+        public boolean selectDependency(Dependency dependency) {
+            org.eclipse.aether.artifact.Artifact artifact = dependency.getArtifact();
+            return (exclusions == null || !exclusions.matches(artifact.getGroupId(), artifact.getArtifactId())) && delegate.selectDependency(dependency);
+        }
+
+        @Override
+        public DependencySelector deriveChildSelector(DependencyCollectionContext context) {
+            DependencySelector child = delegate.deriveChildSelector(context);
+            // the collection root has no dependency, its children are the direct dependencies
+            if (root && context.getDependency() != null) {
+                ExcludingSelector next = new ExcludingSelector(child, exclusions, rootExclusions, false);
+                ExclusionMatcher declared = rootExclusions.get(getKey(context.getDependency().getArtifact()));
+                return declared == null ? next : new DeclaredSelector(next, declared);
+            }
+            return child == delegate ? this : new ExcludingSelector(child, exclusions, rootExclusions, root);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof ExcludingSelector))
+                return false;
+            ExcludingSelector that = (ExcludingSelector) o;
+            return root == that.root && delegate.equals(that.delegate) && exclusions == that.exclusions && rootExclusions == that.rootExclusions;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(delegate, root, System.identityHashCode(exclusions), System.identityHashCode(rootExclusions));
+        }
+    }
+
+    /**
+     * Exclusions declared in a pom on a direct dependency, inherited by the whole subtree
+     */
+    private static class DeclaredSelector implements DependencySelector {
+        private final DependencySelector delegate;
+        private final ExclusionMatcher declared;
+
+        DeclaredSelector(DependencySelector delegate, ExclusionMatcher declared) {
+            this.delegate = delegate;
+            this.declared = declared;
+        }
+
+        @Override
+        public boolean selectDependency(Dependency dependency) {
+            org.eclipse.aether.artifact.Artifact artifact = dependency.getArtifact();
+            return !declared.matches(artifact.getGroupId(), artifact.getArtifactId()) && delegate.selectDependency(dependency);
+        }
+
+        @Override
+        public DependencySelector deriveChildSelector(DependencyCollectionContext context) {
+            DependencySelector child = delegate.deriveChildSelector(context);
+            return child == delegate ? this : new DeclaredSelector(child, declared);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof DeclaredSelector))
+                return false;
+            DeclaredSelector that = (DeclaredSelector) o;
+            return delegate.equals(that.delegate) && declared == that.declared;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(delegate, System.identityHashCode(declared));
+        }
+    }
+}
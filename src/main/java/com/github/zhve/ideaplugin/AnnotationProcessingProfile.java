@@ -0,0 +1,156 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Annotation processing profile of .idea/compiler.xml, taken from the maven-compiler-plugin configuration.
+ * Modules with the same settings share one profile.
+ *
+ * @since 10/19/2026
+ */
+public class AnnotationProcessingProfile {
+    private static final String COMPILER_PLUGIN = "org.apache.maven.plugins:maven-compiler-plugin";
+
+    private final String name;
+    private final boolean defaultProfile;
+    private final boolean enabled;
+    private final String sourceOutputDir;
+    private final String sourceTestOutputDir;
+    private final List<String> processors;
+    private final Map<String, String> options;
+    private final List<String> modules = new ArrayList<String>();
+
+    private AnnotationProcessingProfile(String name, boolean defaultProfile, boolean enabled, String sourceOutputDir, String sourceTestOutputDir, List<String> processors, Map<String, String> options) {
+        this.name = name;
+        this.defaultProfile = defaultProfile;
+        this.enabled = enabled;
+        this.sourceOutputDir = sourceOutputDir;
+        this.sourceTestOutputDir = sourceTestOutputDir;
+        this.processors = processors;
+        this.options = options;
+    }
+
+    /**
+     * @param projects modules
+     * @return profiles, the first one is the default profile of modules with default settings
+     */
+    public static List<AnnotationProcessingProfile> create(List<MavenProject> projects) {
+        Map<String, AnnotationProcessingProfile> profiles = new LinkedHashMap<String, AnnotationProcessingProfile>();
+        String defaultKey = null;
+        for (MavenProject project : projects) {
+            if ("pom".equals(project.getPackaging()))
+                continue;
+            Xpp3Dom configuration = getCompilerConfiguration(project);
+            boolean enabled = !"none".equals(getValue(configuration, "proc"));
+            String sourceOutputDir = getRelativeDirectory(project, getValue(configuration, "generatedSourcesDirectory"), "generated-sources/annotations");
+            String sourceTestOutputDir = getRelativeDirectory(project, getValue(configuration, "generatedTestSourcesDirectory"), "generated-test-sources/test-annotations");
+            List<String> processors = new ArrayList<String>();
+            Xpp3Dom processorsDom = configuration == null ? null : configuration.getChild("annotationProcessors");
+            if (processorsDom != null)
+                for (Xpp3Dom child : processorsDom.getChildren())
+                    if (child.getValue() != null)
+                        processors.add(child.getValue().trim());
+            Map<String, String> options = new TreeMap<String, String>();
+            Xpp3Dom argsDom = configuration == null ? null : configuration.getChild("compilerArgs");
+            if (argsDom != null) {
+                for (Xpp3Dom child : argsDom.getChildren()) {
+                    String arg = child.getValue() == null ? "" : child.getValue().trim();
+                    if (!arg.startsWith("-A") || arg.length() == 2)
+                        continue;
+                    int i = arg.indexOf('=');
+                    options.put(i < 0 ? arg.substring(2) : arg.substring(2, i), i < 0 ? "" : arg.substring(i + 1));
+                }
+            }
+            String key = enabled + "|" + sourceOutputDir + "|" + sourceTestOutputDir + "|" + processors + "|" + options;
+            AnnotationProcessingProfile profile = profiles.get(key);
+            if (profile == null) {
+                boolean isDefault = defaultKey == null && enabled && processors.isEmpty() && options.isEmpty();
+                if (isDefault)
+                    defaultKey = key;
+                String name = isDefault ? "Maven default annotation processors profile" : "Annotation profile for " + project.getArtifactId();
+                profiles.put(key, profile = new AnnotationProcessingProfile(name, isDefault, enabled, sourceOutputDir, sourceTestOutputDir, processors, options));
+            }
+            profile.modules.add(project.getArtifactId());
+        }
+        List<AnnotationProcessingProfile> result = new ArrayList<AnnotationProcessingProfile>();
+        if (defaultKey != null)
+            result.add(profiles.remove(defaultKey));
+        result.addAll(profiles.values());
+        return result;
+    }
+
+    private static Xpp3Dom getCompilerConfiguration(MavenProject project) {
+        Plugin plugin = (Plugin) project.getBuild().getPluginsAsMap().get(COMPILER_PLUGIN);
+        return plugin == null || !(plugin.getConfiguration() instanceof Xpp3Dom) ? null : (Xpp3Dom) plugin.getConfiguration();
+    }
+
+    private static String getValue(Xpp3Dom configuration, String name) {
+        Xpp3Dom child = configuration == null ? null : configuration.getChild(name);
+        return child == null || child.getValue() == null ? null : child.getValue().trim();
+    }
+
+    private static String getRelativeDirectory(MavenProject project, String value, String defaultPath) {
+        File directory = value == null ? new File(project.getBuild().getDirectory(), defaultPath) : new File(value);
+        if (!directory.isAbsolute())
+            directory = new File(project.getBasedir(), directory.getPath());
+        return Util.getRelativePath(project.getBasedir(), directory).replace(File.separatorChar, '/');
+    }
+
+    // Getters
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isDefaultProfile() {
+        return defaultProfile;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getSourceOutputDir() {
+        return sourceOutputDir;
+    }
+
+    public String getSourceTestOutputDir() {
+        return sourceTestOutputDir;
+    }
+
+    public List<String> getProcessors() {
+        return processors;
+    }
+
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    public List<String> getModules() {
+        return modules;
+    }
+}
@@ -24,16 +24,19 @@ import org.apache.maven.artifact.factory.ArtifactFactory;
 import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
 import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.artifact.resolver.*;
-import org.apache.maven.artifact.resolver.filter.ExcludesArtifactFilter;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
 import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
 import org.apache.maven.artifact.versioning.VersionRange;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Exclusion;
+import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.PlexusContainer;
 
 import java.io.File;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 import static com.github.zhve.ideaplugin.IdeaPluginMojoBase.createTestArtifact;
 import static com.github.zhve.ideaplugin.IdeaPluginMojoBase.createWarArtifact;
@@ -48,16 +51,112 @@ public class ArtifactDependencyResolver {
     private ArtifactResolver artifactResolver;
     private ArtifactRepository localRepository;
     private ArtifactMetadataSource artifactMetadataSource;
+    private ExclusionMatcher exclusions;
+    private ConflictReport conflictReport = new ConflictReport();
+    private LatencyReport latencyReport = new LatencyReport();
+    private TransitiveResolver transitiveResolver;
+    private RepositoryHealth repositoryHealth;
+    private SnapshotPolicy snapshotPolicy;
+    private Runnable budgetRestore;
 
-    public ArtifactDependencyResolver(Log log, ArtifactFactory artifactFactory, ArtifactResolver artifactResolver, ArtifactRepository localRepository, ArtifactMetadataSource artifactMetadataSource) {
+    public ArtifactDependencyResolver(Log log, ArtifactFactory artifactFactory, ArtifactResolver artifactResolver, ArtifactRepository localRepository, ArtifactMetadataSource artifactMetadataSource, ExclusionMatcher exclusions) {
         this.log = log;
         this.artifactFactory = artifactFactory;
         this.artifactResolver = artifactResolver;
         this.localRepository = localRepository;
-        this.artifactMetadataSource = artifactMetadataSource;
+        this.artifactMetadataSource = TimedMetadataSource.wrap(artifactMetadataSource, localRepository, latencyReport);
+        this.exclusions = exclusions;
+    }
+
+    /**
+     * Track health of remote repositories and skip unreachable ones, call before {@link #setResolver}
+     *
+     * @param repositoryHealth health of remote repositories, null to use all repositories
+     */
+    public void setRepositoryHealth(RepositoryHealth repositoryHealth) {
+        this.repositoryHealth = repositoryHealth;
+    }
+
+    public RepositoryHealth getRepositoryHealth() {
+        return repositoryHealth;
+    }
+
+    /**
+     * Check snapshot metadata of remote repositories with a TTL, call before {@link #setResolver}
+     *
+     * @param snapshotPolicy snapshot policy, null to keep update policies of repositories
+     */
+    public void setSnapshotPolicy(SnapshotPolicy snapshotPolicy) {
+        this.snapshotPolicy = snapshotPolicy;
+    }
+
+    public SnapshotPolicy getSnapshotPolicy() {
+        return snapshotPolicy;
+    }
+
+    /**
+     * Put back what the resolver changed in the build: snapshot update policies and transfer budgets of the session
+     */
+    public void restore() {
+        if (snapshotPolicy != null)
+            snapshotPolicy.restore();
+        if (budgetRestore != null) {
+            budgetRestore.run();
+            budgetRestore = null;
+        }
+    }
+
+    /**
+     * Select the backend to resolve remote dependencies transitively
+     *
+     * @param name                    "maven2" (Maven 2 API, default) or "aether" (Maven Resolver of Maven 3.1+)
+     * @param container               container to look Maven Resolver up in
+     * @param repositorySystemSession ${repositorySystemSession}, null in Maven 2
+     * @param threads                 number of modules resolved at once by Maven Resolver
+     * @throws MojoFailureException unknown name or Maven Resolver is not available
+     */
+    public void setResolver(String name, PlexusContainer container, Object repositorySystemSession, int threads) throws MojoFailureException {
+        if ("aether".equals(name)) {
+            try {
+                transitiveResolver = AetherTransitiveResolver.create(log, container, repositorySystemSession, artifactFactory, exclusions, latencyReport, repositoryHealth, snapshotPolicy, threads);
+            } catch (LinkageError e) {
+                throw new MojoFailureException("resolver=aether requires Maven 3.1 or newer: " + e);
+            }
+        } else if (name == null || "maven2".equals(name)) {
+            transitiveResolver = null;
+            if (repositoryHealth != null && repositorySystemSession != null) {
+                try {
+                    budgetRestore = AetherTransitiveResolver.applyBudgets(log, repositorySystemSession, repositoryHealth);
+                } catch (LinkageError e) {
+                    log.debug("Transfer budgets are not applied: " + e);
+                }
+                if (budgetRestore == null)
+                    log.info("Repository budgets apply to probes only, transfers of resolver=maven2 keep the timeouts of Maven");
+            }
+        } else {
+            throw new MojoFailureException("Unknown resolver " + name + ", expected maven2 or aether");
+        }
+    }
+
+    public ConflictReport getConflictReport() {
+        return conflictReport;
+    }
+
+    public LatencyReport getLatencyReport() {
+        return latencyReport;
     }
 
     public Map<MavenProject, DependencyData> findDependencies(List<MavenProject> reactorProjects) throws InvalidVersionSpecificationException {
+        return findDependencies(reactorProjects, null);
+    }
+
+    /**
+     * @param reactorProjects reactor projects
+     * @param callback        called for every project as soon as it is resolved, may be null
+     * @return dependency map: reactor project -> dependency data
+     * @throws InvalidVersionSpecificationException error
+     */
+    public Map<MavenProject, DependencyData> findDependencies(List<MavenProject> reactorProjects, BiConsumer<MavenProject, DependencyData> callback) throws InvalidVersionSpecificationException {
         // collect ids
         Set<Artifact> reactorArtifacts = new HashSet<Artifact>();
         log.info("");
@@ -72,6 +171,8 @@ public class ArtifactDependencyResolver {
         Map<MavenProject, DependencyData> dependencyDataMap = findDependencies(log, artifactFactory, reactorArtifacts, reactorProjects);
 
         // Resolve remote dependency transitively
+        if (transitiveResolver != null)
+            return transitiveResolver.resolve(dependencyDataMap, reactorArtifacts, callback);
         Map<MavenProject, DependencyData> dependencyDataNewMap = new LinkedHashMap<MavenProject, DependencyData>();
         for (Map.Entry<MavenProject, DependencyData> entry : dependencyDataMap.entrySet()) {
             MavenProject project = entry.getKey();
@@ -83,12 +184,46 @@ public class ArtifactDependencyResolver {
             List<Artifact> reactorData = new ArrayList<Artifact>(dependencyData.getReactorList());
             List<Artifact> remoteUnresolvedList = new ArrayList<Artifact>(dependencyData.getRemoteList());
             tryResolve(project, reactorArtifacts, remoteData, reactorData, remoteUnresolvedList);
-            dependencyDataNewMap.put(project, new DependencyData(remoteData, reactorData));
+            DependencyData resolved = new DependencyData(remoteData, reactorData);
+            dependencyDataNewMap.put(project, resolved);
+            if (callback != null)
+                callback.accept(project, resolved);
         }
 
         return dependencyDataNewMap;
     }
 
+    /**
+     * Build the reactor-to-reactor graph from the declared dependencies, nothing is resolved
+     *
+     * @param reactorProjects reactor projects
+     * @return reactor graph
+     * @throws InvalidVersionSpecificationException error
+     */
+    public ReactorGraph findReactorGraph(List<MavenProject> reactorProjects) throws InvalidVersionSpecificationException {
+        Map<Artifact, MavenProject> projectMap = new HashMap<Artifact, MavenProject>();
+        for (MavenProject reactorProject : reactorProjects)
+            projectMap.put(reactorProject.getArtifact(), reactorProject);
+        Map<MavenProject, List<MavenProject>> dependencyMap = new HashMap<MavenProject, List<MavenProject>>();
+        for (MavenProject project : reactorProjects) {
+            Set<MavenProject> dependencies = new LinkedHashSet<MavenProject>();
+            for (Object object : project.getDependencies()) {
+                Artifact dependencyArtifact = toDependencyArtifact(artifactFactory, (Dependency) object);
+                MavenProject dependency = projectMap.get(dependencyArtifact);
+                if (dependency == null && dependencyArtifact.hasClassifier()) {
+                    if ("classes".equalsIgnoreCase(dependencyArtifact.getClassifier()))
+                        dependency = projectMap.get(createWarArtifact(dependencyArtifact));
+                    else if ("tests".equalsIgnoreCase(dependencyArtifact.getClassifier()))
+                        dependency = projectMap.get(createTestArtifact(dependencyArtifact));
+                }
+                if (dependency != null && dependency != project)
+                    dependencies.add(dependency);
+            }
+            dependencyMap.put(project, Collections.unmodifiableList(new ArrayList<MavenProject>(dependencies)));
+        }
+        return new ReactorGraph(reactorProjects, dependencyMap);
+    }
+
     /**
      * Transitive resolve all dependencies for reactor projects
      *
@@ -113,7 +248,9 @@ public class ArtifactDependencyResolver {
                 Artifact dependencyArtifact = toDependencyArtifact(artifactFactory, dependency);
                 boolean reactor = isReactorContains(reactorArtifacts, dependencyArtifact);
                 String id = dependencyArtifact.getId() + ":" + dependencyArtifact.getScope();
-                if (Arrays.asList("test-jar","jar").contains(dependencyArtifact.getType())) {
+                if (!reactor && !exclusions.include(dependencyArtifact)) {
+                    log.info("X " + id);
+                } else if (Arrays.asList("test-jar","jar").contains(dependencyArtifact.getType())) {
                     if (reactor) {
                         log.info("R " + id);
                         reactorData.add(dependencyArtifact);
@@ -136,8 +273,8 @@ public class ArtifactDependencyResolver {
         for (MavenProject project : reactorProjects) {
             log.info("");
             log.info(project.getId());
-            Map<String, Artifact> reactorData = new LinkedHashMap<String, Artifact>();
-            Map<String, Artifact> remoteData = new LinkedHashMap<String, Artifact>();
+            ConflictMediator reactorData = new ConflictMediator(project.getArtifact());
+            ConflictMediator remoteData = new ConflictMediator(project.getArtifact());
 
             Queue<Artifact> queue = new LinkedList<Artifact>();
             queue.add(project.getArtifact());
@@ -145,29 +282,25 @@ public class ArtifactDependencyResolver {
                 Artifact artifact = queue.poll();
                 log.info("# " + artifact.getId() + ":" + artifact.getScope());
                 DependencyData artifactDependencyData = getArtifactDependencyData(dependencyMap, artifact);
+                List<String> trail = reactorData.getTrail(artifact);
 
                 // analyze all remote dependencies for given level
                 for (Artifact dependency : artifactDependencyData.getRemoteList()) {
-                    String dependencyConflictId = dependency.getDependencyConflictId();
                     Artifact dependencyArtifact = toDependencyArtifact(artifactFactory, dependency, artifact.getScope());
                     if (dependencyArtifact != null) {
                         String fullName = dependencyArtifact.getId() + ":" + dependencyArtifact.getScope();
-                        Artifact prevArtifact = remoteData.get(dependencyConflictId);
-                        if (prevArtifact == null) {
-                            // new remote dependency
-                            log.info("  " + fullName);
-                            remoteData.put(dependencyConflictId, dependencyArtifact);
-                        } else {
-                            // we have already added this remote dependency
-                            if (prevArtifact.getId().equals(dependencyArtifact.getId())) {
+                        switch (remoteData.offer(dependencyArtifact, trail)) {
+                            case ADDED:
+                                // new remote dependency
+                                log.info("  " + fullName);
+                                break;
+                            case DUPLICATE:
+                                // we have already added this remote dependency
                                 log.info("D " + fullName);
-                            } else {
-                                log.info("C " + fullName);
-                                log.info("  " + project.getArtifact().getId());
-                                log.info("  " + "+-" + prevArtifact.getId() + ":" + prevArtifact.getScope());
-                                log.info("  " + "+-" + artifact.getId() + ":" + artifact.getScope());
-                                log.info("  " + "  \\-" + fullName);
-                            }
+                                break;
+                            case CONFLICT:
+                                logConflict(project, artifact.getId() + ":" + artifact.getScope(), remoteData.getWinner(dependencyArtifact), fullName);
+                                break;
                         }
                     } else {
                         log.info("O " + dependency.getId() + ":" + dependency.getScope() + " (inherit=" + artifact.getId() + ":" + artifact.getScope() + ")");
@@ -176,39 +309,44 @@ public class ArtifactDependencyResolver {
 
                 // analyze all reactor dependencies for given level
                 for (Artifact dependency : artifactDependencyData.getReactorList()) {
-                    String dependencyConflictId = dependency.getDependencyConflictId();
                     Artifact dependencyArtifact = toDependencyArtifact(artifactFactory, dependency, artifact.getScope());
                     if (dependencyArtifact != null) {
                         String fullName = dependencyArtifact.getId() + ":" + dependencyArtifact.getScope();
-                        Artifact prevArtifact = reactorData.get(dependencyConflictId);
-                        if (prevArtifact == null) {
-                            // new reactor dependency
-                            log.info("R " + fullName);
-                            reactorData.put(dependencyConflictId, dependencyArtifact);
-                            // go deep
-                            queue.add(dependencyArtifact);
-                        } else {
-                            // we have already added this remote dependency
-                            if (prevArtifact.getId().equals(dependencyArtifact.getId())) {
+                        switch (reactorData.offer(dependencyArtifact, trail)) {
+                            case ADDED:
+                                // new reactor dependency
+                                log.info("R " + fullName);
+                                // go deep
+                                queue.add(dependencyArtifact);
+                                break;
+                            case DUPLICATE:
+                                // we have already added this reactor dependency
                                 log.info("D " + fullName);
-                            } else {
-                                log.info("C " + fullName);
-                                log.info("  " + project.getArtifact().getId());
-                                log.info("  " + "+-" + prevArtifact.getId() + ":" + prevArtifact.getScope());
-                                log.info("  " + "+-" + artifact.getId() + ":" + artifact.getScope());
-                                log.info("  " + "  \\-" + fullName);
-                            }
+                                break;
+                            case CONFLICT:
+                                logConflict(project, artifact.getId() + ":" + artifact.getScope(), reactorData.getWinner(dependencyArtifact), fullName);
+                                break;
                         }
                     } else {
                         log.info("O " + dependency.getId() + ":" + dependency.getScope() + " (inherit=" + artifact.getId() + ":" + artifact.getScope() + ")");
                     }
                 }
             }
-            result.put(project, new DependencyData(new ArrayList<Artifact>(remoteData.values()), new ArrayList<Artifact>(reactorData.values())));
+            conflictReport.add(project, reactorData.getConflicts());
+            conflictReport.add(project, remoteData.getConflicts());
+            result.put(project, new DependencyData(remoteData.getArtifacts(), reactorData.getArtifacts()));
         }
         return result;
     }
 
+    private void logConflict(MavenProject project, String parent, Artifact prevArtifact, String fullName) {
+        log.info("C " + fullName);
+        log.info("  " + project.getArtifact().getId());
+        log.info("  " + "+-" + prevArtifact.getId() + ":" + prevArtifact.getScope());
+        log.info("  " + "+-" + parent);
+        log.info("  " + "  \\-" + fullName);
+    }
+
     private static DependencyData getArtifactDependencyData(Map<Artifact, DependencyData> dependencyMap, Artifact artifact) {
         DependencyData dd = dependencyMap.get(artifact);
         if (dd == null && artifact.hasClassifier()) {
@@ -220,7 +358,7 @@ public class ArtifactDependencyResolver {
         return dd;
     }
 
-    private static boolean isReactorContains(Set<Artifact> reactorArtifacts, Artifact dependencyArtifact) {
+    static boolean isReactorContains(Set<Artifact> reactorArtifacts, Artifact dependencyArtifact) {
         boolean result = reactorArtifacts.contains(dependencyArtifact);
         if (!result && dependencyArtifact.hasClassifier()) {
             if (dependencyArtifact.getClassifier().equalsIgnoreCase("classes"))
@@ -252,12 +390,12 @@ public class ArtifactDependencyResolver {
                 dependency.isOptional()
         );
 
-        // apply exclusions is needed
+        // apply exclusions is needed, wildcards are allowed
         if (!dependency.getExclusions().isEmpty()) {
             List<String> exclusions = new ArrayList<String>();
             for (Exclusion exclusion : dependency.getExclusions())
                 exclusions.add(exclusion.getGroupId() + ":" + exclusion.getArtifactId());
-            dependencyArtifact.setDependencyFilter(new ExcludesArtifactFilter(exclusions));
+            dependencyArtifact.setDependencyFilter(ExclusionMatcher.compile(exclusions));
         }
 
         // additional
@@ -292,39 +430,73 @@ public class ArtifactDependencyResolver {
         for (Artifact a : remoteUnresolvedList)
             log.info("  " + a.getId() + ":" + a.getScope());
         log.info("");
+        ConflictMediator mediator = new ConflictMediator(project.getArtifact());
+        List<String> rootTrail = mediator.getTrail(project.getArtifact());
+        for (Artifact art : reactorData)
+            mediator.offer(art, rootTrail);
+        @SuppressWarnings("unchecked")
+        List<ArtifactRepository> repositories = project.getRemoteArtifactRepositories();
+        if (snapshotPolicy != null)
+            snapshotPolicy.apply(repositories);
+        if (repositoryHealth != null)
+            repositories = repositoryHealth.filter(repositories);
+        JfrEvents.ModuleResolution event = JfrEvents.moduleResolution(project.getId(), "maven2");
+        long start = System.currentTimeMillis();
+        boolean failed = true;
         try {
             resolutionResult = artifactResolver.resolveTransitively(
                     new LinkedHashSet<Artifact>(remoteUnresolvedList),
                     project.getArtifact(),
                     project.getManagedVersionMap(),
                     localRepository,
-                    project.getRemoteArtifactRepositories(),
-                    artifactMetadataSource
+                    repositories,
+                    artifactMetadataSource,
+                    exclusions.isEmpty() ? null : (ArtifactFilter) a -> isReactorContains(reactorArtifacts, a) || exclusions.include(a),
+                    Collections.singletonList(mediator.newListener())
             );
             // save search result
             log.info("After:");
             for (Object resolutionNode : resolutionResult.getArtifactResolutionNodes()) {
                 Artifact art = ((ResolutionNode) resolutionNode).getArtifact();
                 if (isReactorContains(reactorArtifacts, art)) {
-                    if (!reactorData.contains(art)) {
-                        reactorData.add(art);
-                        log.info("R " + art.getId() + ":" + art.getScope());
-                    } else {
-                        log.info("D " + art.getId() + ":" + art.getScope());
+                    List<String> trail = art.getDependencyTrail();
+                    List<String> parentTrail = trail == null || trail.size() < 2 ? rootTrail : trail.subList(0, trail.size() - 1);
+                    String fullName = art.getId() + ":" + art.getScope();
+                    switch (mediator.offer(art, parentTrail)) {
+                        case ADDED:
+                            log.info("R " + fullName);
+                            break;
+                        case DUPLICATE:
+                            log.info("D " + fullName);
+                            break;
+                        case CONFLICT:
+                            logConflict(project, parentTrail.get(parentTrail.size() - 1), mediator.getWinner(art), fullName);
+                            break;
                     }
                 } else {
                     log.info("  " + art.getId() + ":" + art.getScope());
                     remoteData.add(art);
                 }
             }
+            // winners only, a nearer candidate replaces the previous one
+            reactorData.clear();
+            reactorData.addAll(mediator.getArtifacts());
             // clear unresolved
             remoteUnresolvedList.clear();
+            failed = false;
         } catch (ArtifactResolutionException e) {
             log.error(e.getMessage());
             remoteData.addAll(remoteUnresolvedList);
+            if (repositoryHealth != null)
+                repositoryHealth.check(repositories);
         } catch (ArtifactNotFoundException e) {
             throw new RuntimeException(e.getMessage(), e);
+        } finally {
+            latencyReport.recordModule(project.getId(), System.currentTimeMillis() - start, failed);
+            if (event != null)
+                event.end(remoteData, reactorData.size(), failed);
         }
+        conflictReport.add(project, mediator.getConflicts());
     }
 
     // Classes
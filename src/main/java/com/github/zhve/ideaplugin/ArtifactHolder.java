@@ -26,6 +26,7 @@ import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Vasiliy Zhukov
@@ -47,12 +48,20 @@ class ArtifactHolder {
      */
     private Set<Artifact> reactorArtifacts;
 
+    /**
+     * Maven Project -> Remote Dependency Artifacts
+     */
+    private Map<MavenProject, List<Artifact>> remoteMap = new ConcurrentHashMap<MavenProject, List<Artifact>>();
+
+    /**
+     * Maven Project -> Dependency Artifacts in classpath order
+     */
+    private Map<MavenProject, List<Artifact>> classpathMap = new ConcurrentHashMap<MavenProject, List<Artifact>>();
+
+    private final Log log;
+
     public ArtifactHolder(Log log, ArtifactDependencyResolver resolver, List<MavenProject> reactorProjects) throws MojoExecutionException {
-        // collect
-        reactorArtifacts = new HashSet<Artifact>();
-        for (MavenProject reactorProject : reactorProjects)
-            reactorArtifacts.add(reactorProject.getArtifact());
-        reactorArtifacts = Collections.unmodifiableSet(reactorArtifacts);
+        this(log, reactorProjects);
 
         // Resolve
         Map<MavenProject, ArtifactDependencyResolver.DependencyData> dependencyDataNewMap;
@@ -61,11 +70,64 @@ class ArtifactHolder {
         } catch (InvalidVersionSpecificationException e) {
             throw new MojoExecutionException(e.getMessage(), e);
         }
+        for (Map.Entry<MavenProject, ArtifactDependencyResolver.DependencyData> entry : dependencyDataNewMap.entrySet())
+            put(entry.getKey(), entry.getValue());
+        complete();
+    }
+
+    /**
+     * Empty holder to be filled with {@link #put} while projects are resolved and finished with {@link #complete}
+     *
+     * @param log             log
+     * @param reactorProjects reactor projects
+     */
+    public ArtifactHolder(Log log, List<MavenProject> reactorProjects) {
+        this.log = log;
+        // collect
+        reactorArtifacts = new HashSet<Artifact>();
+        for (MavenProject reactorProject : reactorProjects)
+            reactorArtifacts.add(reactorProject.getArtifact());
+        reactorArtifacts = Collections.unmodifiableSet(reactorArtifacts);
+        dependencyMap = new ConcurrentHashMap<MavenProject, List<Artifact>>();
+    }
 
+    /**
+     * Save dependencies of a resolved project, it can be rendered right after that
+     *
+     * @param project project
+     * @param data    resolved dependencies
+     */
+    public void put(MavenProject project, ArtifactDependencyResolver.DependencyData data) {
+        List<Artifact> remoteList = new ArrayList<Artifact>(data.getRemoteList());
+        List<Artifact> reactorList = new ArrayList<Artifact>(data.getReactorList());
+        Collections.sort(remoteList, ArtifactComparator.INSTANCE);
+        Collections.sort(reactorList, ArtifactComparator.INSTANCE);
+        List<Artifact> artifacts = new ArrayList<Artifact>();
+        artifacts.addAll(reactorList);
+        artifacts.addAll(remoteList);
+        dependencyMap.put(project, Collections.unmodifiableList(artifacts));
+        remoteMap.put(project, data.getRemoteList());
+        // reactor modules, then remote artifacts nearest first, in the order of resolution on the same depth
+        List<Artifact> classpath = new ArrayList<Artifact>(data.getReactorList());
+        List<Artifact> remoteOrder = new ArrayList<Artifact>(data.getRemoteList());
+        Collections.sort(remoteOrder, Comparator.comparingInt(ArtifactHolder::getDepth));
+        classpath.addAll(remoteOrder);
+        classpathMap.put(project, Collections.unmodifiableList(classpath));
+    }
+
+    private static int getDepth(Artifact artifact) {
+        List<?> trail = artifact.getDependencyTrail();
+        return trail == null ? Integer.MAX_VALUE : trail.size();
+    }
+
+    /**
+     * Collect dependencies of all projects once all of them are resolved
+     */
+    public void complete() {
         // Find common dependencies
         Set<Artifact> fullSet = new HashSet<Artifact>();
-        for (ArtifactDependencyResolver.DependencyData data : dependencyDataNewMap.values())
-            fullSet.addAll(data.getRemoteList());
+        for (List<Artifact> remoteList : remoteMap.values())
+            fullSet.addAll(remoteList);
 
         // Save allDependencies
         allDependencies = new ArrayList<Artifact>(fullSet);
@@ -77,22 +139,14 @@ class ArtifactHolder {
         log.info("");
         for (Artifact artifact : allDependencies)
             log.info("  " + artifact.getId());
+    }
 
-        // Save dependencyMap
-
-        this.dependencyMap = new HashMap<MavenProject, List<Artifact>>();
-        for (Map.Entry<MavenProject, ArtifactDependencyResolver.DependencyData> entry : dependencyDataNewMap.entrySet()) {
-            MavenProject project = entry.getKey();
-            // Remove commonSet from dependencies
-            List<Artifact> remoteList = new ArrayList<Artifact>(entry.getValue().getRemoteList());
-            List<Artifact> reactorList = new ArrayList<Artifact>(entry.getValue().getReactorList());
-            Collections.sort(remoteList, ArtifactComparator.INSTANCE);
-            Collections.sort(reactorList, ArtifactComparator.INSTANCE);
-            List<Artifact> artifacts = new ArrayList<Artifact>();
-            artifacts.addAll(reactorList);
-            artifacts.addAll(remoteList);
-            this.dependencyMap.put(project, Collections.unmodifiableList(artifacts));
-        }
+    /**
+     * @param project project
+     * @return true if dependencies of the project are resolved and saved with {@link #put}
+     */
+    public boolean contains(MavenProject project) {
+        return dependencyMap.containsKey(project);
     }
 
     public List<Artifact> getDependencies(MavenProject project) {
@@ -100,6 +154,24 @@ class ArtifactHolder {
         return artifacts == null ? Collections.<Artifact>emptyList() : artifacts;
     }
 
+    /**
+     * @param project project
+     * @return resolved remote dependencies with their dependency trails, unsorted
+     */
+    public List<Artifact> getRemoteDependencies(MavenProject project) {
+        List<Artifact> artifacts = remoteMap.get(project);
+        return artifacts == null ? Collections.<Artifact>emptyList() : artifacts;
+    }
+
+    /**
+     * @param project project
+     * @return dependencies in the order Maven puts them on the classpath, unlike {@link #getDependencies} which is sorted
+     */
+    public List<Artifact> getClasspath(MavenProject project) {
+        List<Artifact> artifacts = classpathMap.get(project);
+        return artifacts == null ? Collections.<Artifact>emptyList() : artifacts;
+    }
+
     public List<Artifact> getAllDependencies() {
         return allDependencies;
     }
@@ -0,0 +1,442 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.metadata.ResolutionGroup;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.ArtifactRepositoryPolicy;
+import org.apache.maven.artifact.resolver.filter.AndArtifactFilter;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills the local repository before the first resolution. The artifact set is collected from the poms only,
+ * level by level with poms of a level retrieved in parallel. Then jars, sources and poms are downloaded in parallel
+ * from the remote repositories, through the proxy of the settings, with at most a given number of connections per repository.
+ * Downloads are verified against the .sha1 (or .md5) checksum of the repository, which is stored next to the file,
+ * and rejected on a mismatch unless the checksum policy of the repository is "ignore". Verified files are
+ * registered in _remote.repositories, so Maven 3 accepts them as coming from that repository.
+ * Snapshots are left to Maven, they need repository metadata.
+ *
+ * @since 10/19/2026
+ */
+class ArtifactPrefetcher {
+    private final Log log;
+    private final ArtifactFactory artifactFactory;
+    private final ArtifactMetadataSource artifactMetadataSource;
+    private final ArtifactRepository localRepository;
+    private final int threads;
+    private final int connectionsPerRepository;
+    private final int retries;
+    private final RepositoryHealth repositoryHealth;
+
+    private final ConcurrentMap<String, Semaphore> connections = new ConcurrentHashMap<String, Semaphore>();
+    private final AtomicLong downloaded = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong present = new AtomicLong();
+    private final AtomicLong missing = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public ArtifactPrefetcher(Log log, ArtifactFactory artifactFactory, ArtifactMetadataSource artifactMetadataSource, ArtifactRepository localRepository,
+                              int threads, int connectionsPerRepository, int retries, RepositoryHealth repositoryHealth) {
+        this.log = log;
+        this.artifactFactory = artifactFactory;
+        this.artifactMetadataSource = artifactMetadataSource;
+        this.localRepository = localRepository;
+        this.threads = threads;
+        this.connectionsPerRepository = connectionsPerRepository;
+        this.retries = retries;
+        this.repositoryHealth = repositoryHealth;
+    }
+
+    // Collect
+
+    /**
+     * @param reactorProjects reactor projects, they are not collected themselves
+     * @param exclusions      global exclusions
+     * @return all artifacts reachable from the dependencies of the projects, several versions of one artifact are possible
+     * @throws InvalidVersionSpecificationException error
+     * @throws InterruptedException                 interrupted
+     */
+    public Collection<Artifact> collect(List<MavenProject> reactorProjects, ExclusionMatcher exclusions) throws InvalidVersionSpecificationException, InterruptedException {
+        Set<String> reactorIds = new HashSet<String>();
+        for (MavenProject project : reactorProjects)
+            reactorIds.add(project.getGroupId() + ":" + project.getArtifactId());
+
+        Map<String, Artifact> result = new ConcurrentHashMap<String, Artifact>();
+        List<Node> level = new ArrayList<Node>();
+        for (MavenProject project : reactorProjects) {
+            for (Object object : project.getDependencies()) {
+                Dependency dependency = (Dependency) object;
+                if (Artifact.SCOPE_SYSTEM.equals(dependency.getScope()) || reactorIds.contains(dependency.getGroupId() + ":" + dependency.getArtifactId()))
+                    continue;
+                Artifact artifact = artifactFactory.createDependencyArtifact(dependency.getGroupId(), dependency.getArtifactId(),
+                        VersionRange.createFromVersionSpec(dependency.getVersion()), dependency.getType(), dependency.getClassifier(),
+                        dependency.getScope() == null ? Artifact.SCOPE_COMPILE : dependency.getScope(), null, dependency.isOptional());
+                if (!exclusions.include(artifact))
+                    continue;
+                @SuppressWarnings("unchecked")
+                List<ArtifactRepository> repositories = project.getRemoteArtifactRepositories();
+                @SuppressWarnings("unchecked")
+                Map<String, Artifact> managedVersionMap = project.getManagedVersionMap();
+                level.add(new Node(artifact, exclusions, repositories, managedVersionMap));
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Set<String> visited = ConcurrentHashMap.newKeySet();
+            int depth = 0;
+            while (!level.isEmpty()) {
+                List<Future<List<Node>>> futures = new ArrayList<Future<List<Node>>>();
+                for (Node node : level)
+                    futures.add(executor.submit(() -> expand(node, visited, result)));
+                List<Node> next = new ArrayList<Node>();
+                for (Future<List<Node>> future : futures) {
+                    try {
+                        next.addAll(future.get());
+                    } catch (ExecutionException e) {
+                        log.warn(e.getCause().getMessage());
+                    }
+                }
+                log.info("Level " + depth++ + ": " + level.size() + " dependencies, " + result.size() + " artifacts collected");
+                level = next;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        List<Artifact> artifacts = new ArrayList<Artifact>(result.values());
+        Collections.sort(artifacts, ArtifactComparator.INSTANCE);
+        return artifacts;
+    }
+
+    private List<Node> expand(Node node, Set<String> visited, Map<String, Artifact> result) throws Exception {
+        Artifact artifact = node.artifact;
+        if (artifact.getVersion() == null && !selectVersion(artifact, node.repositories))
+            return Collections.emptyList();
+        if (!visited.add(artifact.getId()))
+            return Collections.emptyList();
+        result.put(artifact.getId(), artifact);
+        if (!"pom".equals(artifact.getType()) && !"jar".equals(artifact.getType()) && !"test-jar".equals(artifact.getType()) && !"bundle".equals(artifact.getType()))
+            return Collections.emptyList();
+
+        ResolutionGroup group;
+        try {
+            group = artifactMetadataSource.retrieve(artifact, localRepository, repositoryHealth.filter(node.repositories));
+        } catch (Exception e) {
+            log.warn("Can't read pom of " + artifact.getId() + ": " + e.getMessage());
+            return Collections.emptyList();
+        }
+        @SuppressWarnings("unchecked")
+        List<ArtifactRepository> repositories = group.getResolutionRepositories() == null ? node.repositories : group.getResolutionRepositories();
+        List<Node> children = new ArrayList<Node>();
+        for (Object object : group.getArtifacts()) {
+            Artifact child = (Artifact) object;
+            // the same dependencies Maven follows transitively
+            if (child.isOptional() || Artifact.SCOPE_TEST.equals(child.getScope()) || Artifact.SCOPE_PROVIDED.equals(child.getScope()) || Artifact.SCOPE_SYSTEM.equals(child.getScope()))
+                continue;
+            if (node.filter != null && !node.filter.include(child))
+                continue;
+            // dependency management of the module applies to transitive dependencies
+            Artifact managed = node.managedVersionMap == null ? null : node.managedVersionMap.get(child.getDependencyConflictId());
+            if (managed != null && managed.getVersion() != null)
+                child.setVersion(managed.getVersion());
+            ArtifactFilter filter = node.filter;
+            if (filter == null) {
+                filter = child.getDependencyFilter();
+            } else if (child.getDependencyFilter() != null) {
+                AndArtifactFilter and = new AndArtifactFilter();
+                and.add(node.filter);
+                and.add(child.getDependencyFilter());
+                filter = and;
+            }
+            children.add(new Node(child, filter, repositories, node.managedVersionMap));
+        }
+        return children;
+    }
+
+    private boolean selectVersion(Artifact artifact, List<ArtifactRepository> repositories) {
+        try {
+            @SuppressWarnings("unchecked")
+            List<ArtifactVersion> versions = artifactMetadataSource.retrieveAvailableVersions(artifact, localRepository, repositoryHealth.filter(repositories));
+            ArtifactVersion version = artifact.getVersionRange().matchVersion(versions);
+            if (version == null) {
+                log.warn("No version of " + artifact.getDependencyConflictId() + " matches " + artifact.getVersionRange());
+                return false;
+            }
+            artifact.selectVersion(version.toString());
+            return true;
+        } catch (Exception e) {
+            log.warn("Can't read versions of " + artifact.getDependencyConflictId() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Download
+
+    /**
+     * @param artifacts    artifacts to download
+     * @param repositories repositories to download from, in order
+     * @param sources      download sources jars too
+     * @param javadoc      download javadoc jars too
+     * @throws InterruptedException interrupted
+     */
+    public void download(Collection<Artifact> artifacts, List<ArtifactRepository> repositories, boolean sources, boolean javadoc) throws InterruptedException {
+        List<ArtifactRepository> remotes = new ArrayList<ArtifactRepository>();
+        for (ArtifactRepository repository : repositories) {
+            if (repository.getUrl().startsWith("http:") || repository.getUrl().startsWith("https:") || repository.getUrl().startsWith("file:")) {
+                repositoryHealth.register(repository);
+                remotes.add(repository);
+            }
+        }
+        Map<String, Artifact> files = new LinkedHashMap<String, Artifact>();
+        for (Artifact artifact : artifacts) {
+            if (artifact.isSnapshot())
+                continue;
+            String g = artifact.getGroupId(), a = artifact.getArtifactId(), v = artifact.getVersion();
+            addFile(files, artifact);
+            addFile(files, artifactFactory.createProjectArtifact(g, a, v));
+            if (sources)
+                addFile(files, artifactFactory.createArtifactWithClassifier(g, a, v, "jar", "sources"));
+            if (javadoc)
+                addFile(files, artifactFactory.createArtifactWithClassifier(g, a, v, "jar", "javadoc"));
+        }
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, remotes.size() * connectionsPerRepository)));
+        try {
+            List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(files.size());
+            for (Map.Entry<String, Artifact> entry : files.entrySet())
+                tasks.add(() -> {
+                    download(entry.getKey(), entry.getValue(), remotes);
+                    return null;
+                });
+            executor.invokeAll(tasks);
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("");
+        log.info("Prefetch: " + files.size() + " files, " + present + " present, " + downloaded + " downloaded (" + bytes.get() / 1024 + " KB), "
+                + missing + " missing, " + failed + " failed, " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private void addFile(Map<String, Artifact> files, Artifact artifact) {
+        if (artifact != null)
+            files.put(localRepository.pathOf(artifact), artifact);
+    }
+
+    private void download(String path, Artifact artifact, List<ArtifactRepository> repositories) throws InterruptedException {
+        File file = new File(localRepository.getBasedir(), path);
+        if (file.isFile()) {
+            present.incrementAndGet();
+            return;
+        }
+        String error = null;
+        for (ArtifactRepository repository : repositories) {
+            Semaphore semaphore = connections.computeIfAbsent(repository.getId(), id -> new Semaphore(connectionsPerRepository));
+            for (int attempt = 0; attempt <= retries && !repositoryHealth.isOpen(repository.getId()); attempt++) {
+                if (attempt > 0)
+                    Thread.sleep(500L << Math.min(attempt - 1, 5));
+                semaphore.acquire();
+                long start = System.currentTimeMillis();
+                try {
+                    long size = copy(new URL(repository.getUrl().replaceAll("/$", "") + "/" + repository.pathOf(artifact)), file, getChecksumPolicy(repository));
+                    repositoryHealth.recordSuccess(repository.getId(), System.currentTimeMillis() - start);
+                    register(file, repository.getId());
+                    downloaded.incrementAndGet();
+                    bytes.addAndGet(size);
+                    log.debug("Downloaded " + repository.getId() + " " + path);
+                    return;
+                } catch (FileNotFoundException e) {
+                    // not in this repository
+                    repositoryHealth.recordSuccess(repository.getId(), System.currentTimeMillis() - start);
+                    break;
+                } catch (IOException e) {
+                    // a corrupt transfer is retried, but the repository did answer
+                    if (!(e instanceof ChecksumMismatchException))
+                        repositoryHealth.recordFailure(repository.getId(), e.getClass().getSimpleName() + ": " + e.getMessage());
+                    log.debug("Attempt " + (attempt + 1) + " of " + path + " from " + repository.getId() + " failed: " + e.getMessage());
+                    // a later repository may have it
+                    if (attempt == retries)
+                        error = repository.getId() + ": " + e.getMessage();
+                } finally {
+                    semaphore.release();
+                }
+            }
+        }
+        if (error != null) {
+            log.warn("Can't download " + path + " from " + error);
+            failed.incrementAndGet();
+        } else {
+            missing.incrementAndGet();
+        }
+    }
+
+    private static String getChecksumPolicy(ArtifactRepository repository) {
+        ArtifactRepositoryPolicy policy = repository.getReleases();
+        return policy == null ? null : policy.getChecksumPolicy();
+    }
+
+    private long copy(URL url, File file, String checksumPolicy) throws IOException {
+        URLConnection connection = open(url);
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory())
+            throw new IOException("Can't create directory " + parent);
+        File tmp = File.createTempFile(file.getName(), ".part", parent);
+        try {
+            MessageDigest sha1 = newDigest("SHA-1");
+            MessageDigest md5 = newDigest("MD5");
+            long size;
+            try (InputStream in = new DigestInputStream(new DigestInputStream(connection.getInputStream(), sha1), md5)) {
+                size = Files.copy(in, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (!ArtifactRepositoryPolicy.CHECKSUM_POLICY_IGNORE.equals(checksumPolicy))
+                verify(url, file, WorkspaceCache.toHex(sha1.digest()), WorkspaceCache.toHex(md5.digest()));
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return size;
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    /**
+     * Compare the download with the checksum of the repository and store the checksum next to the file
+     *
+     * @throws ChecksumMismatchException checksum mismatch
+     * @throws IOException                the checksum can't be read
+     */
+    private void verify(URL url, File file, String sha1, String md5) throws IOException {
+        String extension = ".sha1";
+        String actual = sha1;
+        String expected = readChecksum(new URL(url + extension));
+        if (expected == null) {
+            extension = ".md5";
+            actual = md5;
+            expected = readChecksum(new URL(url + extension));
+        }
+        if (expected == null) {
+            log.debug("No checksum for " + url);
+            return;
+        }
+        if (!expected.equals(actual))
+            throw new ChecksumMismatchException("Checksum mismatch for " + url + ": expected " + expected + ", got " + actual);
+        Files.write(new File(file.getPath() + extension).toPath(), actual.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return lower case checksum, null if the repository has none
+     */
+    private String readChecksum(URL url) throws IOException {
+        String value;
+        try (InputStream in = open(url).getInputStream()) {
+            value = new String(readAll(in), StandardCharsets.US_ASCII).trim();
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        // "<checksum>" or "<checksum>  <file name>"
+        int i = value.indexOf(' ');
+        return (i < 0 ? value : value.substring(0, i)).toLowerCase(Locale.ROOT);
+    }
+
+    private URLConnection open(URL url) throws IOException {
+        // the proxy needs credentials which only Maven has, leave the file to Maven
+        if (!repositoryHealth.canConnect(url.toString()))
+            throw new FileNotFoundException(url + ": proxy needs credentials");
+        URLConnection connection = repositoryHealth.openConnection(url);
+        if (connection instanceof HttpURLConnection) {
+            int code = ((HttpURLConnection) connection).getResponseCode();
+            // 401/403/407: needs credentials which only Maven has, leave the file to Maven
+            if (code == HttpURLConnection.HTTP_NOT_FOUND || code == HttpURLConnection.HTTP_UNAUTHORIZED || code == HttpURLConnection.HTTP_FORBIDDEN
+                    || code == HttpURLConnection.HTTP_PROXY_AUTH)
+                throw new FileNotFoundException(url + ": " + code);
+        }
+        return connection;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        for (int n; (n = in.read(buffer)) > 0; )
+            out.write(buffer, 0, n);
+        return out.toByteArray();
+    }
+
+    private static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void register(File file, String repositoryId) throws IOException {
+        File remoteRepositories = new File(file.getParentFile(), "_remote.repositories");
+        synchronized (ArtifactPrefetcher.class) {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(remoteRepositories, true), StandardCharsets.UTF_8)) {
+                writer.write(file.getName() + ">" + repositoryId + "=\n");
+            }
+        }
+    }
+
+    // Classes
+
+    private static class ChecksumMismatchException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private ChecksumMismatchException(String message) {
+            super(message);
+        }
+    }
+
+    private static class Node {
+        private final Artifact artifact;
+        private final ArtifactFilter filter;
+        private final List<ArtifactRepository> repositories;
+        private final Map<String, Artifact> managedVersionMap;
+
+        private Node(Artifact artifact, ArtifactFilter filter, List<ArtifactRepository> repositories, Map<String, Artifact> managedVersionMap) {
+            this.artifact = artifact;
+            this.filter = filter;
+            this.repositories = repositories;
+            this.managedVersionMap = managedVersionMap;
+        }
+    }
+}
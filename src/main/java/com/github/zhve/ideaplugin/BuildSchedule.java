@@ -0,0 +1,207 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.*;
+
+/**
+ * Build schedule of the reactor: every module starts as soon as all its reactor dependencies are built.
+ * Levels are the longest chain of dependencies below a module, the critical path is the heaviest chain.
+ *
+ * @since 10/19/2026
+ */
+class BuildSchedule {
+    private final ReactorGraph graph;
+    private final Map<MavenProject, Long> weights;
+    private final String unit;
+
+    private final Map<MavenProject, Integer> levelMap = new HashMap<MavenProject, Integer>();
+    private final Map<MavenProject, Long> finishMap = new HashMap<MavenProject, Long>();
+    private final List<List<MavenProject>> levels = new ArrayList<List<MavenProject>>();
+    private final List<MavenProject> criticalPath = new ArrayList<MavenProject>();
+    private long totalWeight;
+    private long criticalWeight;
+    private int maxParallelism;
+
+    /**
+     * @param graph   reactor graph
+     * @param weights module -> weight, for example build time or number of source files
+     * @param unit    unit of the weights for the report
+     */
+    public BuildSchedule(ReactorGraph graph, Map<MavenProject, Long> weights, String unit) {
+        this.graph = graph;
+        this.weights = weights;
+        this.unit = unit;
+        for (MavenProject project : graph.getProjects()) {
+            int level = getLevel(project);
+            while (levels.size() <= level)
+                levels.add(new ArrayList<MavenProject>());
+            levels.get(level).add(project);
+            totalWeight += getWeight(project);
+        }
+        // critical path: walk back from the module finishing last through the dependency finishing last
+        MavenProject last = null;
+        for (MavenProject project : graph.getProjects())
+            if (last == null || getFinish(project) > getFinish(last))
+                last = project;
+        while (last != null) {
+            criticalPath.add(0, last);
+            MavenProject next = null;
+            for (MavenProject dependency : graph.getDependencies(last))
+                if (next == null || getFinish(dependency) > getFinish(next))
+                    next = dependency;
+            last = next;
+        }
+        criticalWeight = criticalPath.isEmpty() ? 0 : getFinish(criticalPath.get(criticalPath.size() - 1));
+        maxParallelism = computeMaxParallelism();
+    }
+
+    private long getWeight(MavenProject project) {
+        Long weight = weights.get(project);
+        return weight == null ? 1 : Math.max(1, weight);
+    }
+
+    private int getLevel(MavenProject project) {
+        Integer level = levelMap.get(project);
+        if (level == null) {
+            level = 0;
+            for (MavenProject dependency : graph.getDependencies(project))
+                level = Math.max(level, getLevel(dependency) + 1);
+            levelMap.put(project, level);
+        }
+        return level;
+    }
+
+    private long getFinish(MavenProject project) {
+        Long finish = finishMap.get(project);
+        if (finish == null) {
+            finish = getStart(project) + getWeight(project);
+            finishMap.put(project, finish);
+        }
+        return finish;
+    }
+
+    private long getStart(MavenProject project) {
+        long start = 0;
+        for (MavenProject dependency : graph.getDependencies(project))
+            start = Math.max(start, getFinish(dependency));
+        return start;
+    }
+
+    /**
+     * @return the largest number of modules building at the same time with unlimited threads
+     */
+    private int computeMaxParallelism() {
+        // +1 at start, -1 at finish, finishes go before starts at the same time
+        List<long[]> events = new ArrayList<long[]>();
+        for (MavenProject project : graph.getProjects()) {
+            events.add(new long[]{getStart(project), 1});
+            events.add(new long[]{getFinish(project), -1});
+        }
+        Collections.sort(events, (o1, o2) -> o1[0] != o2[0] ? Long.compare(o1[0], o2[0]) : Long.compare(o1[1], o2[1]));
+        int current = 0;
+        int max = 0;
+        for (long[] event : events) {
+            current += event[1];
+            max = Math.max(max, current);
+        }
+        return max;
+    }
+
+    /**
+     * @return threads worth giving to -T: more than the total work over the critical path can't be used
+     */
+    public int getRecommendedThreads() {
+        if (criticalWeight == 0)
+            return 1;
+        long bound = (totalWeight + criticalWeight - 1) / criticalWeight;
+        return (int) Math.max(1, Math.min(maxParallelism, bound));
+    }
+
+    public List<List<MavenProject>> getLevels() {
+        return levels;
+    }
+
+    public List<MavenProject> getCriticalPath() {
+        return criticalPath;
+    }
+
+    public int getMaxParallelism() {
+        return maxParallelism;
+    }
+
+    private static String getProjectList(List<MavenProject> projects) {
+        StringBuilder sb = new StringBuilder();
+        for (MavenProject project : projects)
+            sb.append(sb.length() == 0 ? "" : ",").append(project.getGroupId()).append(':').append(project.getArtifactId());
+        return sb.toString();
+    }
+
+    private List<String> getLines() {
+        List<String> lines = new ArrayList<String>();
+        lines.add("Modules: " + graph.getProjects().size() + ", total weight: " + totalWeight + " " + unit);
+        lines.add("Levels: " + levels.size());
+        lines.add("Critical path: " + criticalPath.size() + " modules, " + criticalWeight + " " + unit);
+        lines.add("Max parallelism: " + maxParallelism);
+        lines.add("Recommended: -T " + getRecommendedThreads());
+        lines.add("");
+        lines.add("Critical Path");
+        lines.add("");
+        for (MavenProject project : criticalPath)
+            lines.add("  " + getFinish(project) + " " + unit + "  " + project.getId() + " (" + getWeight(project) + ")");
+        lines.add("");
+        lines.add("Levels");
+        for (int i = 0; i < levels.size(); i++) {
+            long weight = 0;
+            for (MavenProject project : levels.get(i))
+                weight += getWeight(project);
+            lines.add("");
+            lines.add("  level " + i + ": " + levels.get(i).size() + " modules, " + weight + " " + unit);
+            lines.add("  -pl " + getProjectList(levels.get(i)));
+        }
+        return lines;
+    }
+
+    public void log(Log log) {
+        log.info("");
+        log.info("Build Schedule");
+        log.info("");
+        for (String line : getLines())
+            log.info(line);
+    }
+
+    public void write(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Can't create directory " + parent);
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"))) {
+            for (String line : getLines())
+                writer.println(line);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Classes referenced by a class file, read from its constant pool only: class entries and every type
+ * in descriptors and generic signatures (fields, methods, annotations, lambdas). String constants are skipped.
+ * Constants inlined by the compiler leave no trace in the pool and are not seen.
+ *
+ * @since 10/19/2026
+ */
+final class ClassReferences {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private ClassReferences() {
+    }
+
+    /**
+     * @param bytes      class file
+     * @param referenced classes in internal form ("java/lang/Object") to add the references to
+     * @throws IOException not a class file
+     */
+    static void read(byte[] bytes, Set<String> referenced) throws IOException {
+        try {
+            parse(bytes, referenced);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated class file");
+        }
+    }
+
+    private static void parse(byte[] bytes, Set<String> referenced) throws IOException {
+        if (bytes.length < 10 || getInt(bytes, 0) != MAGIC)
+            throw new IOException("Not a class file");
+        int count = getShort(bytes, 8);
+        // offset of every Utf8 entry, the ones to look at for types are marked
+        int[] utf8 = new int[count];
+        boolean[] constant = new boolean[count];
+        boolean[] className = new boolean[count];
+        int p = 10;
+        for (int i = 1; i < count; i++) {
+            if (p >= bytes.length)
+                throw new IOException("Truncated constant pool");
+            int tag = bytes[p] & 0xFF;
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = p;
+                    p += 3 + getShort(bytes, p + 1);
+                    break;
+                case 7: // Class
+                    className[getIndex(bytes, p + 1, count)] = true;
+                    p += 3;
+                    break;
+                case 8: // String
+                    constant[getIndex(bytes, p + 1, count)] = true;
+                    p += 3;
+                    break;
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    p += 3;
+                    break;
+                case 15: // MethodHandle
+                    p += 4;
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    p += 5;
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    p += 9;
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        for (int i = 1; i < count; i++) {
+            if (utf8[i] == 0 || constant[i] && !className[i])
+                continue;
+            int offset = utf8[i] + 3;
+            int length = getShort(bytes, utf8[i] + 1);
+            if (className[i] && (length == 0 || bytes[offset] != '[')) {
+                referenced.add(new String(bytes, offset, length, StandardCharsets.UTF_8));
+            } else if (contains(bytes, offset, length, (byte) ';')) {
+                addTypes(new String(bytes, offset, length, StandardCharsets.UTF_8), referenced);
+            }
+        }
+    }
+
+    /**
+     * Add every "Lname;" of a descriptor or a signature, type variables and inner class suffixes are skipped
+     */
+    static void addTypes(String descriptor, Set<String> referenced) {
+        int length = descriptor.length();
+        for (int i = 0; i < length; i++) {
+            char c = descriptor.charAt(i);
+            if (c != 'L' && c != 'T')
+                continue;
+            int end = i + 1;
+            while (end < length && ";<.:".indexOf(descriptor.charAt(end)) < 0)
+                end++;
+            if (end == length)
+                return;
+            // "T:" is the name of a type parameter, "TT;" is a type variable
+            if (c == 'L' && descriptor.charAt(end) != ':' && end > i + 1)
+                referenced.add(descriptor.substring(i + 1, end));
+            i = end;
+            if (descriptor.charAt(end) == '.')
+                while (i + 1 < length && ";<".indexOf(descriptor.charAt(i + 1)) < 0)
+                    i++;
+        }
+    }
+
+    private static boolean contains(byte[] bytes, int offset, int length, byte value) {
+        for (int i = offset; i < offset + length; i++)
+            if (bytes[i] == value)
+                return true;
+        return false;
+    }
+
+    private static int getIndex(byte[] bytes, int p, int count) throws IOException {
+        int index = getShort(bytes, p);
+        if (index <= 0 || index >= count)
+            throw new IOException("Invalid constant pool index " + index);
+        return index;
+    }
+
+    private static int getShort(byte[] bytes, int p) {
+        return (bytes[p] & 0xFF) << 8 | bytes[p + 1] & 0xFF;
+    }
+
+    private static int getInt(byte[] bytes, int p) {
+        return getShort(bytes, p) << 16 | getShort(bytes, p + 2);
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Writes classpath files of a module, one per scope, in the format of dependency:build-classpath.
+ * Reactor modules are mapped to their output directories, other artifacts to the local repository.
+ *
+ * @since 10/19/2026
+ */
+class ClasspathExport {
+    public static final String[] SCOPES = {Artifact.SCOPE_COMPILE, Artifact.SCOPE_RUNTIME, Artifact.SCOPE_TEST};
+
+    private final ArtifactRepository localRepository;
+
+    /**
+     * groupId:artifactId -> reactor project
+     */
+    private final Map<String, MavenProject> reactorMap = new HashMap<String, MavenProject>();
+
+    public ClasspathExport(ArtifactRepository localRepository, List<MavenProject> reactorProjects) {
+        this.localRepository = localRepository;
+        for (MavenProject project : reactorProjects)
+            reactorMap.put(project.getGroupId() + ":" + project.getArtifactId(), project);
+    }
+
+    /**
+     * @param project      module
+     * @param dependencies all dependencies of the module in classpath order, see {@link ArtifactHolder#getClasspath}
+     * @return written files
+     * @throws IOException error
+     */
+    public List<File> write(MavenProject project, List<Artifact> dependencies) throws IOException {
+        File directory = new File(project.getBuild().getDirectory());
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Can't create directory " + directory);
+        List<File> files = new ArrayList<File>(SCOPES.length);
+        for (String scope : SCOPES) {
+            StringBuilder sb = new StringBuilder();
+            for (Artifact artifact : dependencies) {
+                if (!isInScope(artifact.getScope(), scope))
+                    continue;
+                if (sb.length() > 0)
+                    sb.append(File.pathSeparatorChar);
+                sb.append(getPath(artifact));
+            }
+            File file = new File(directory, "idea-classpath-" + scope + ".txt");
+            Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * @param artifactScope scope of the dependency
+     * @param scope         classpath scope: compile, runtime or test
+     * @return whether the dependency is on the classpath of this scope
+     */
+    private static boolean isInScope(String artifactScope, String scope) {
+        if (artifactScope == null || Artifact.SCOPE_COMPILE.equals(artifactScope))
+            return true;
+        if (Artifact.SCOPE_TEST.equals(scope))
+            return true;
+        if (Artifact.SCOPE_COMPILE.equals(scope))
+            return Artifact.SCOPE_PROVIDED.equals(artifactScope) || Artifact.SCOPE_SYSTEM.equals(artifactScope);
+        return Artifact.SCOPE_RUNTIME.equals(artifactScope);
+    }
+
+    private String getPath(Artifact artifact) {
+        MavenProject reactorProject = reactorMap.get(artifact.getGroupId() + ":" + artifact.getArtifactId());
+        if (reactorProject != null) {
+            if ("tests".equals(artifact.getClassifier()))
+                return reactorProject.getBuild().getTestOutputDirectory();
+            return reactorProject.getBuild().getOutputDirectory();
+        }
+        if (artifact.getFile() != null && Artifact.SCOPE_SYSTEM.equals(artifact.getScope()))
+            return artifact.getFile().getAbsolutePath();
+        return new File(localRepository.getBasedir(), localRepository.pathOf(artifact)).getAbsolutePath();
+    }
+}
@@ -0,0 +1,227 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.resolver.ResolutionListener;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+import java.util.*;
+
+/**
+ * Nearest-wins mediation over artifacts indexed by dependency conflict id.
+ * Every offer is a single hash lookup, so mediating a graph is linear in its size.
+ * Losing candidates are kept as {@link Conflict} entries for the conflict report.
+ *
+ * @since 10/19/2026
+ */
+class ConflictMediator {
+    enum Outcome {
+        ADDED, DUPLICATE, CONFLICT
+    }
+
+    private final List<String> rootTrail;
+
+    /**
+     * Dependency conflict id -> winning entry
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+
+    private final List<Conflict> conflicts = new ArrayList<Conflict>();
+
+    public ConflictMediator(Artifact root) {
+        this.rootTrail = Collections.singletonList(root.getId());
+    }
+
+    /**
+     * Offer a candidate reached through the given trail. The candidate wins if its conflict id is new
+     * or if it is nearer than the current winner; on equal depth the first declaration wins.
+     *
+     * @param artifact    candidate
+     * @param parentTrail trail of the artifact which declares the candidate
+     * @return mediation outcome
+     */
+    public Outcome offer(Artifact artifact, List<String> parentTrail) {
+        String key = artifact.getDependencyConflictId();
+        List<String> trail = new ArrayList<String>(parentTrail.size() + 1);
+        trail.addAll(parentTrail);
+        trail.add(artifact.getId());
+        Entry prev = entries.get(key);
+        if (prev == null) {
+            entries.put(key, new Entry(artifact, trail));
+            return Outcome.ADDED;
+        }
+        if (prev.artifact.getId().equals(artifact.getId()))
+            return Outcome.DUPLICATE;
+        if (trail.size() < prev.trail.size()) {
+            // nearer declaration replaces the previous winner
+            entries.put(key, new Entry(artifact, trail));
+            conflicts.add(new Conflict(key, artifact, prev.artifact, prev.trail));
+            return Outcome.ADDED;
+        }
+        conflicts.add(new Conflict(key, prev.artifact, artifact, trail));
+        return Outcome.CONFLICT;
+    }
+
+    /**
+     * @param artifact winner or root artifact
+     * @return trail from the root to the artifact
+     */
+    public List<String> getTrail(Artifact artifact) {
+        Entry entry = entries.get(artifact.getDependencyConflictId());
+        return entry == null ? rootTrail : entry.trail;
+    }
+
+    public Artifact getWinner(Artifact artifact) {
+        Entry entry = entries.get(artifact.getDependencyConflictId());
+        return entry == null ? null : entry.artifact;
+    }
+
+    public List<Artifact> getArtifacts() {
+        List<Artifact> list = new ArrayList<Artifact>(entries.size());
+        for (Entry entry : entries.values())
+            list.add(entry.artifact);
+        return list;
+    }
+
+    public List<Conflict> getConflicts() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    /**
+     * Listener for {@code ArtifactResolver.resolveTransitively} which records the versions omitted for nearer ones
+     *
+     * @return new listener bound to this mediator
+     */
+    public ResolutionListener newListener() {
+        return new ConflictListener();
+    }
+
+    // Classes
+
+    private static class Entry {
+        private final Artifact artifact;
+        private final List<String> trail;
+
+        private Entry(Artifact artifact, List<String> trail) {
+            this.artifact = artifact;
+            this.trail = Collections.unmodifiableList(trail);
+        }
+    }
+
+    public static class Conflict {
+        private final String conflictId;
+        private final Artifact winner;
+        private final Artifact loser;
+        private final List<String> loserTrail;
+
+        public Conflict(String conflictId, Artifact winner, Artifact loser, List<String> loserTrail) {
+            this.conflictId = conflictId;
+            this.winner = winner;
+            this.loser = loser;
+            this.loserTrail = Collections.unmodifiableList(new ArrayList<String>(loserTrail));
+        }
+
+        public String getConflictId() {
+            return conflictId;
+        }
+
+        public Artifact getWinner() {
+            return winner;
+        }
+
+        public Artifact getLoser() {
+            return loser;
+        }
+
+        public List<String> getLoserTrail() {
+            return loserTrail;
+        }
+    }
+
+    private class ConflictListener implements ResolutionListener {
+        private final Deque<String> stack = new ArrayDeque<String>();
+
+        /**
+         * Artifact id -> trail at the moment it was included
+         */
+        private final Map<String, List<String>> included = new HashMap<String, List<String>>();
+
+        private List<String> trailOf(Artifact artifact) {
+            List<String> trail = included.get(artifact.getId());
+            if (trail == null) {
+                trail = new ArrayList<String>(stack);
+                Collections.reverse(trail);
+                trail.add(artifact.getId());
+            }
+            return trail;
+        }
+
+        @Override
+        public void startProcessChildren(Artifact artifact) {
+            stack.push(artifact.getId());
+        }
+
+        @Override
+        public void endProcessChildren(Artifact artifact) {
+            stack.poll();
+        }
+
+        @Override
+        public void includeArtifact(Artifact artifact) {
+            included.put(artifact.getId(), trailOf(artifact));
+        }
+
+        @Override
+        public void omitForNearer(Artifact omitted, Artifact kept) {
+            if (!omitted.getId().equals(kept.getId()))
+                conflicts.add(new Conflict(omitted.getDependencyConflictId(), kept, omitted, trailOf(omitted)));
+        }
+
+        @Override
+        public void testArtifact(Artifact artifact) {
+        }
+
+        @Override
+        public void updateScope(Artifact artifact, String scope) {
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void manageArtifact(Artifact artifact, Artifact replacement) {
+        }
+
+        @Override
+        public void omitForCycle(Artifact artifact) {
+        }
+
+        @Override
+        public void updateScopeCurrentPom(Artifact artifact, String scope) {
+        }
+
+        @Override
+        public void selectVersionFromRange(Artifact artifact) {
+        }
+
+        @Override
+        public void restrictRange(Artifact artifact, Artifact replacement, VersionRange newRange) {
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.*;
+
+/**
+ * Version conflicts of all reactor modules: every losing path together with the winning version
+ *
+ * @since 10/19/2026
+ */
+class ConflictReport {
+    /**
+     * Project id -> conflicts
+     */
+    private final Map<String, List<ConflictMediator.Conflict>> conflictMap = new LinkedHashMap<String, List<ConflictMediator.Conflict>>();
+
+    public synchronized void add(MavenProject project, Collection<ConflictMediator.Conflict> conflicts) {
+        if (conflicts.isEmpty())
+            return;
+        List<ConflictMediator.Conflict> list = conflictMap.get(project.getId());
+        if (list == null)
+            conflictMap.put(project.getId(), list = new ArrayList<ConflictMediator.Conflict>());
+        list.addAll(conflicts);
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for (List<ConflictMediator.Conflict> list : conflictMap.values())
+            size += list.size();
+        return size;
+    }
+
+    /**
+     * Write the report grouped by module and conflict id
+     *
+     * @param file target file, parent directories are created
+     * @throws IOException error
+     */
+    public synchronized void write(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Can't create directory " + parent);
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"))) {
+            for (Map.Entry<String, List<ConflictMediator.Conflict>> entry : conflictMap.entrySet()) {
+                writer.println(entry.getKey());
+                Map<String, List<ConflictMediator.Conflict>> byId = new TreeMap<String, List<ConflictMediator.Conflict>>();
+                for (ConflictMediator.Conflict conflict : entry.getValue()) {
+                    List<ConflictMediator.Conflict> list = byId.get(conflict.getConflictId());
+                    if (list == null)
+                        byId.put(conflict.getConflictId(), list = new ArrayList<ConflictMediator.Conflict>());
+                    list.add(conflict);
+                }
+                for (List<ConflictMediator.Conflict> list : byId.values()) {
+                    // the last recorded winner is the final one
+                    writer.println("  " + list.get(0).getConflictId() + " -> " + list.get(list.size() - 1).getWinner().getVersion());
+                    for (ConflictMediator.Conflict conflict : list) {
+                        writer.println("    " + conflict.getLoser().getVersion() + " lost");
+                        String indent = "      ";
+                        for (String id : conflict.getLoserTrail()) {
+                            writer.println(indent + id);
+                            indent += "  ";
+                        }
+                    }
+                }
+                writer.println();
+            }
+        }
+    }
+}
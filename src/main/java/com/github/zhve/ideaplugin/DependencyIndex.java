@@ -0,0 +1,201 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.*;
+
+/**
+ * Reverse dependency index: artifact -> modules which get it, directly or transitively, with the shortest path.
+ * A path goes through reactor modules first: a module gets an artifact either from its own pom or from the
+ * nearest reactor dependency, whichever is shorter. The index is a sorted text file, one line per artifact and module,
+ * with a fingerprint of the reactor poms and exclusions in the header to detect a stale index.
+ *
+ * @since 10/19/2026
+ */
+class DependencyIndex {
+    private static final String HEADER = "# idea-who ";
+    private static final String SEPARATOR = " > ";
+
+    /**
+     * "groupId:artifactId\tversion:scope\tmodule\tpath" lines
+     */
+    private final List<String> lines;
+
+    private DependencyIndex(List<String> lines) {
+        this.lines = lines;
+    }
+
+    /**
+     * @param graph    reactor graph
+     * @param holder   resolved dependencies
+     * @param projects resolved modules
+     * @return index
+     */
+    public static DependencyIndex build(ReactorGraph graph, ArtifactHolder holder, List<MavenProject> projects) {
+        Map<MavenProject, Map<String, List<String>>> paths = new HashMap<MavenProject, Map<String, List<String>>>();
+        List<String> lines = new ArrayList<String>();
+        for (MavenProject project : projects) {
+            Map<String, List<String>> modulePaths = getPaths(graph, holder, project, paths, new HashSet<MavenProject>());
+            for (Artifact artifact : holder.getDependencies(project)) {
+                List<String> path = modulePaths.get(artifact.getDependencyConflictId());
+                if (path == null)
+                    path = Arrays.asList(project.getId(), artifact.getId());
+                lines.add(artifact.getGroupId() + ":" + artifact.getArtifactId() + "\t" + artifact.getVersion() + ":" + artifact.getScope()
+                        + "\t" + project.getId() + "\t" + String.join(SEPARATOR, path));
+            }
+        }
+        Collections.sort(lines);
+        return new DependencyIndex(lines);
+    }
+
+    /**
+     * Shortest paths of a module, computed once per module, dependencies first
+     *
+     * @return dependency conflict id -> path starting with the module
+     */
+    private static Map<String, List<String>> getPaths(ReactorGraph graph, ArtifactHolder holder, MavenProject project,
+                                                      Map<MavenProject, Map<String, List<String>>> paths, Set<MavenProject> visiting) {
+        Map<String, List<String>> result = paths.get(project);
+        if (result != null)
+            return result;
+        result = new HashMap<String, List<String>>();
+        if (!visiting.add(project))
+            return result;
+        // from the own pom: the trail must start with a declared dependency, otherwise it was inherited from the reactor
+        Set<String> declared = new HashSet<String>();
+        for (Object object : project.getDependencies())
+            declared.add(((Dependency) object).getGroupId() + ":" + ((Dependency) object).getArtifactId());
+        for (Artifact artifact : holder.getRemoteDependencies(project)) {
+            List<String> trail = artifact.getDependencyTrail();
+            if (trail == null || trail.size() < 2)
+                continue;
+            String first = trail.get(1);
+            int i = first.indexOf(':');
+            int j = i < 0 ? -1 : first.indexOf(':', i + 1);
+            if (j < 0 || !declared.contains(first.substring(0, j)))
+                continue;
+            List<String> path = new ArrayList<String>(trail.size());
+            path.add(project.getId());
+            path.addAll(trail.subList(1, trail.size()));
+            offer(result, artifact.getDependencyConflictId(), path);
+        }
+        // through reactor dependencies
+        for (MavenProject dependency : graph.getDependencies(project)) {
+            offer(result, dependency.getArtifact().getDependencyConflictId(), Arrays.asList(project.getId(), dependency.getId()));
+            for (Map.Entry<String, List<String>> entry : getPaths(graph, holder, dependency, paths, visiting).entrySet()) {
+                List<String> path = new ArrayList<String>(entry.getValue().size() + 1);
+                path.add(project.getId());
+                path.addAll(entry.getValue());
+                offer(result, entry.getKey(), path);
+            }
+        }
+        visiting.remove(project);
+        paths.put(project, result);
+        return result;
+    }
+
+    private static void offer(Map<String, List<String>> paths, String key, List<String> path) {
+        List<String> prev = paths.get(key);
+        if (prev == null || prev.size() > path.size())
+            paths.put(key, path);
+    }
+
+    /**
+     * @param reactorProjects reactor projects
+     * @param root            execution root
+     * @param exclusions      exclusions the index is built with
+     * @return fingerprint of the index input
+     * @throws IOException can't read a pom
+     */
+    public static String fingerprint(List<MavenProject> reactorProjects, File root, List<String> exclusions) throws IOException {
+        MessageDigest digest = WorkspaceCache.newDigest();
+        WorkspaceCache.updatePoms(digest, reactorProjects, root);
+        WorkspaceCache.update(digest, "exclusions=" + exclusions);
+        return WorkspaceCache.toHex(digest.digest());
+    }
+
+    public void write(File file, String fingerprint) throws IOException {
+        List<String> content = new ArrayList<String>(lines.size() + 1);
+        content.add(HEADER + fingerprint);
+        content.addAll(lines);
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        File tmp = new File(file.getPath() + ".tmp");
+        Files.write(tmp.toPath(), content, StandardCharsets.UTF_8);
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @param file        index file
+     * @param fingerprint expected fingerprint
+     * @return index, null if there is no file or it is stale
+     * @throws IOException can't read
+     */
+    public static DependencyIndex read(File file, String fingerprint) throws IOException {
+        if (!file.isFile())
+            return null;
+        List<String> content = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        if (content.isEmpty() || !content.get(0).equals(HEADER + fingerprint))
+            return null;
+        return new DependencyIndex(content.subList(1, content.size()));
+    }
+
+    public int size() {
+        return lines.size();
+    }
+
+    /**
+     * @param pattern artifactId or groupId:artifactId, '*' wildcards are allowed
+     * @return artifact -> modules which get it with version, scope and the shortest path
+     */
+    public Map<String, List<String[]>> query(String pattern) {
+        String value = pattern.trim();
+        ExclusionMatcher matcher = ExclusionMatcher.compile(Collections.singletonList(value.indexOf(':') < 0 ? "*:" + value : value));
+        Map<String, List<String[]>> result = new TreeMap<String, List<String[]>>();
+        for (String line : lines) {
+            String[] parts = line.split("\t", 4);
+            int i = parts[0].indexOf(':');
+            if (parts.length < 4 || i < 0 || !matcher.matches(parts[0].substring(0, i), parts[0].substring(i + 1)))
+                continue;
+            List<String[]> modules = result.get(parts[0]);
+            if (modules == null)
+                result.put(parts[0], modules = new ArrayList<String[]>());
+            modules.add(new String[]{parts[2], parts[1], parts[3]});
+        }
+        return result;
+    }
+
+    /**
+     * @param path path of an index line
+     * @return number of hops from the module
+     */
+    public static int getDepth(String path) {
+        return path.split(SEPARATOR).length - 1;
+    }
+}
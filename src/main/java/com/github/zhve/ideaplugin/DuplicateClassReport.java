@@ -0,0 +1,209 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.*;
+
+/**
+ * Duplicate classes and split packages of every module's libraries. Classes and packages found in more than one jar
+ * of the whole reactor are collected once, a module only checks these candidates against its own jars,
+ * and modules with the same jars in the same order share one result.
+ *
+ * @since 10/19/2026
+ */
+class DuplicateClassReport {
+    /**
+     * Class name -> jars, only classes found in several jars
+     */
+    private final Map<String, List<File>> classJars = new HashMap<String, List<File>>();
+
+    /**
+     * Package name -> jars, only packages found in several jars
+     */
+    private final Map<String, List<File>> packageJars = new HashMap<String, List<File>>();
+
+    /**
+     * Jars in classpath order -> result, the first jar of a finding depends on the order
+     */
+    private final Map<List<File>, Result> resultCache = new HashMap<List<File>, Result>();
+
+    /**
+     * Project id -> result, modules without findings are left out
+     */
+    private final Map<String, Result> results = new LinkedHashMap<String, Result>();
+
+    /**
+     * @param jarClasses jar -> class names, see {@link JarIndex#index}
+     */
+    public DuplicateClassReport(Map<File, String[]> jarClasses) {
+        Map<String, File> firstClassJar = new HashMap<String, File>();
+        Map<String, File> firstPackageJar = new HashMap<String, File>();
+        for (Map.Entry<File, String[]> entry : jarClasses.entrySet()) {
+            File jar = entry.getKey();
+            String lastPackage = null;
+            for (String className : entry.getValue()) {
+                collect(firstClassJar, classJars, className, jar);
+                // class names are sorted, so classes of a package are adjacent
+                String packageName = JarIndex.getPackage(className);
+                if (!packageName.equals(lastPackage))
+                    collect(firstPackageJar, packageJars, lastPackage = packageName, jar);
+            }
+        }
+    }
+
+    private static void collect(Map<String, File> first, Map<String, List<File>> several, String name, File jar) {
+        File previous = first.putIfAbsent(name, jar);
+        if (previous == null || previous.equals(jar))
+            return;
+        List<File> jars = several.get(name);
+        if (jars == null) {
+            several.put(name, jars = new ArrayList<File>(2));
+            jars.add(previous);
+        }
+        jars.add(jar);
+    }
+
+    /**
+     * Check libraries of a module, artifacts without a jar (reactor modules, unresolved) are skipped
+     *
+     * @param project      project
+     * @param dependencies resolved dependencies in classpath order, see {@link ArtifactHolder#getClasspath}
+     * @return number of duplicate classes and split packages
+     */
+    public int add(MavenProject project, List<Artifact> dependencies) {
+        Map<File, String> classpath = new LinkedHashMap<File, String>();
+        for (Artifact artifact : dependencies)
+            if (artifact.getFile() != null && artifact.getFile().isFile())
+                classpath.put(artifact.getFile(), artifact.getId());
+        List<File> key = new ArrayList<File>(classpath.keySet());
+        Result result = resultCache.get(key);
+        if (result == null)
+            resultCache.put(key, result = new Result(find(classJars, classpath), find(packageJars, classpath)));
+        int count = result.getDuplicateClasses() + result.getSplitPackages();
+        if (count > 0)
+            results.put(project.getId(), result);
+        return count;
+    }
+
+    /**
+     * @return jar ids in classpath order -> class or package names
+     */
+    private static Map<List<String>, List<String>> find(Map<String, List<File>> candidates, Map<File, String> classpath) {
+        Map<File, Integer> order = new HashMap<File, Integer>();
+        for (File jar : classpath.keySet())
+            order.put(jar, order.size());
+        Map<List<String>, List<String>> result = new TreeMap<List<String>, List<String>>((o1, o2) -> o1.toString().compareTo(o2.toString()));
+        for (Map.Entry<String, List<File>> entry : candidates.entrySet()) {
+            List<File> jars = null;
+            for (File jar : entry.getValue()) {
+                if (classpath.containsKey(jar)) {
+                    if (jars == null)
+                        jars = new ArrayList<File>(2);
+                    jars.add(jar);
+                }
+            }
+            if (jars == null || jars.size() < 2)
+                continue;
+            Collections.sort(jars, (o1, o2) -> order.get(o1) - order.get(o2));
+            List<String> ids = new ArrayList<String>(jars.size());
+            for (File jar : jars)
+                ids.add(classpath.get(jar));
+            List<String> names = result.get(ids);
+            if (names == null)
+                result.put(ids, names = new ArrayList<String>());
+            names.add(entry.getKey());
+        }
+        for (List<String> names : result.values())
+            Collections.sort(names);
+        return result;
+    }
+
+    public Map<String, Result> getResults() {
+        return results;
+    }
+
+    /**
+     * Write the report grouped by module and by the jars sharing classes, the first jar is the one on the classpath
+     *
+     * @param file target file, parent directories are created
+     * @throws IOException error
+     */
+    public void write(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Can't create directory " + parent);
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"))) {
+            for (Map.Entry<String, Result> entry : results.entrySet()) {
+                Result result = entry.getValue();
+                writer.println(entry.getKey());
+                for (Map.Entry<List<String>, List<String>> group : result.duplicateClasses.entrySet()) {
+                    writer.println("  " + group.getValue().size() + " duplicate classes in " + String.join(", ", group.getKey()));
+                    for (String className : group.getValue())
+                        writer.println("    " + className.replace('/', '.'));
+                }
+                for (Map.Entry<List<String>, List<String>> group : result.splitPackages.entrySet()) {
+                    writer.println("  " + group.getValue().size() + " split packages in " + String.join(", ", group.getKey()));
+                    for (String packageName : group.getValue())
+                        writer.println("    " + (packageName.isEmpty() ? "(default package)" : packageName));
+                }
+                writer.println();
+            }
+        }
+    }
+
+    static class Result {
+        /**
+         * Jar ids -> classes found in all of them
+         */
+        private final Map<List<String>, List<String>> duplicateClasses;
+
+        /**
+         * Jar ids -> packages found in all of them
+         */
+        private final Map<List<String>, List<String>> splitPackages;
+
+        private Result(Map<List<String>, List<String>> duplicateClasses, Map<List<String>, List<String>> splitPackages) {
+            this.duplicateClasses = duplicateClasses;
+            this.splitPackages = splitPackages;
+        }
+
+        public int getDuplicateClasses() {
+            int count = 0;
+            for (List<String> names : duplicateClasses.values())
+                count += names.size();
+            return count;
+        }
+
+        public int getSplitPackages() {
+            int count = 0;
+            for (List<String> names : splitPackages.values())
+                count += names.size();
+            return count;
+        }
+    }
+}
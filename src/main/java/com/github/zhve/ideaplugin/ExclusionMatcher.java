@@ -0,0 +1,132 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled exclusion list in "groupId:artifactId" format, both parts may use '*' wildcards.
+ * Exact ids, "groupId:*", "*:artifactId" and "groupPrefix*:*" are answered by hash lookups,
+ * only patterns with a wildcard inside a part fall back to regular expressions.
+ *
+ * @since 10/19/2026
+ */
+class ExclusionMatcher implements ArtifactFilter {
+    public static final ExclusionMatcher EMPTY = compile(Collections.<String>emptyList());
+
+    private final boolean all;
+    private final Set<String> ids = new HashSet<String>();
+    private final Set<String> groups = new HashSet<String>();
+    private final Set<String> artifacts = new HashSet<String>();
+    private final Set<String> groupPrefixes = new HashSet<String>();
+    private final int[] groupPrefixLengths;
+    private final List<Pattern> patterns = new ArrayList<Pattern>();
+    private final String source;
+
+    private ExclusionMatcher(Collection<String> exclusions) {
+        this.source = new ArrayList<String>(exclusions).toString();
+        boolean all = false;
+        SortedSet<Integer> prefixLengths = new TreeSet<Integer>();
+        for (String exclusion : exclusions) {
+            String value = exclusion.trim();
+            if (value.isEmpty())
+                continue;
+            int i = value.indexOf(':');
+            String groupId = i < 0 ? value : value.substring(0, i);
+            String artifactId = i < 0 ? "*" : value.substring(i + 1);
+            boolean anyGroup = "*".equals(groupId);
+            boolean anyArtifact = "*".equals(artifactId);
+            if (anyGroup && anyArtifact) {
+                all = true;
+            } else if (anyArtifact && groupId.indexOf('*') < 0) {
+                groups.add(groupId);
+            } else if (anyGroup && artifactId.indexOf('*') < 0) {
+                artifacts.add(artifactId);
+            } else if (groupId.indexOf('*') < 0 && artifactId.indexOf('*') < 0) {
+                ids.add(groupId + ":" + artifactId);
+            } else if (anyArtifact && groupId.indexOf('*') == groupId.length() - 1) {
+                String prefix = groupId.substring(0, groupId.length() - 1);
+                groupPrefixes.add(prefix);
+                prefixLengths.add(prefix.length());
+            } else {
+                patterns.add(Pattern.compile(toRegex(groupId) + ":" + toRegex(artifactId)));
+            }
+        }
+        this.all = all;
+        this.groupPrefixLengths = new int[prefixLengths.size()];
+        int j = 0;
+        for (Integer length : prefixLengths)
+            groupPrefixLengths[j++] = length;
+    }
+
+    public static ExclusionMatcher compile(Collection<String> exclusions) {
+        return new ExclusionMatcher(exclusions == null ? Collections.<String>emptyList() : exclusions);
+    }
+
+    private static String toRegex(String glob) {
+        StringBuilder sb = new StringBuilder();
+        String[] parts = glob.split("\\*", -1);
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0)
+                sb.append(".*");
+            if (!parts[i].isEmpty())
+                sb.append(Pattern.quote(parts[i]));
+        }
+        return sb.toString();
+    }
+
+    public boolean isEmpty() {
+        return !all && ids.isEmpty() && groups.isEmpty() && artifacts.isEmpty() && groupPrefixes.isEmpty() && patterns.isEmpty();
+    }
+
+    public boolean matches(String groupId, String artifactId) {
+        if (all || groups.contains(groupId) || artifacts.contains(artifactId) || ids.contains(groupId + ":" + artifactId))
+            return true;
+        for (int length : groupPrefixLengths) {
+            if (length > groupId.length())
+                break;
+            if (groupPrefixes.contains(groupId.substring(0, length)))
+                return true;
+        }
+        if (!patterns.isEmpty()) {
+            String id = groupId + ":" + artifactId;
+            for (Pattern pattern : patterns)
+                if (pattern.matcher(id).matches())
+                    return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    // ArtifactFilter
+
+    @Override
+    public boolean include(Artifact artifact) {
+        return !matches(artifact.getGroupId(), artifact.getArtifactId());
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Per-run cache of file existence checks. Checks are prefetched in parallel, so the number of stat calls
+ * does not show up in generation time. Missing files can be remembered between runs in a negative cache file,
+ * its entries expire after a day. Files inside the local repository are answered by its index when one is given.
+ *
+ * @since 10/19/2026
+ */
+class FileExistenceCache {
+    private static final long NEGATIVE_TTL = TimeUnit.DAYS.toMillis(1);
+
+    private final ConcurrentMap<String, Boolean> cache = new ConcurrentHashMap<String, Boolean>();
+
+    /**
+     * Missing file -> time it was checked
+     */
+    private final ConcurrentMap<String, Long> negativeCache = new ConcurrentHashMap<String, Long>();
+    private final File negativeCacheFile;
+    private final LocalRepositoryIndex index;
+
+    public FileExistenceCache(File negativeCacheFile, LocalRepositoryIndex index) throws IOException {
+        this.negativeCacheFile = negativeCacheFile;
+        this.index = index;
+        if (negativeCacheFile != null && negativeCacheFile.isFile()) {
+            long now = System.currentTimeMillis();
+            for (String line : Files.readAllLines(negativeCacheFile.toPath(), StandardCharsets.UTF_8)) {
+                int i = line.indexOf('\t');
+                if (i < 0)
+                    continue;
+                long checked = Long.parseLong(line.substring(0, i));
+                if (now - checked < NEGATIVE_TTL)
+                    negativeCache.put(line.substring(i + 1), checked);
+            }
+        }
+    }
+
+    /**
+     * Check all files in parallel and keep the results
+     *
+     * @param paths absolute paths
+     * @throws InterruptedException interrupted
+     */
+    public void prefetch(Collection<String> paths) throws InterruptedException {
+        int threads = Math.min(64, 4 * Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>(paths.size());
+            for (String path : paths)
+                tasks.add(() -> exists(path));
+            executor.invokeAll(tasks);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean exists(String path) {
+        return cache.computeIfAbsent(path, this::check);
+    }
+
+    private boolean check(String path) {
+        Boolean indexed = index == null ? null : index.exists(new File(path));
+        if (indexed != null)
+            return indexed;
+        if (negativeCache.containsKey(path))
+            return false;
+        boolean exists = new File(path).isFile();
+        if (!exists)
+            negativeCache.put(path, System.currentTimeMillis());
+        return exists;
+    }
+
+    public void save() throws IOException {
+        if (negativeCacheFile == null)
+            return;
+        List<String> lines = new ArrayList<String>(negativeCache.size());
+        for (Map.Entry<String, Long> entry : negativeCache.entrySet())
+            lines.add(entry.getValue() + "\t" + entry.getKey());
+        File parent = negativeCacheFile.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Can't create directory " + parent);
+        Files.write(negativeCacheFile.toPath(), lines, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,214 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+/**
+ * Finds directories under module basedirs which should not be indexed: directories with well-known names
+ * (node_modules, .gradle, ...) and directories with too many files or bytes. Sources, resources, the build
+ * directory and nested modules are never excluded. Modules are scanned in parallel, counting stops at the thresholds
+ * and the whole scan has a time limit, so a huge tree can't slow generation down.
+ *
+ * @since 10/19/2026
+ */
+class HeavyDirectoryScanner {
+    public static final List<String> DEFAULT_PATTERNS = Collections.unmodifiableList(Arrays.asList(
+            "node_modules", "bower_components", ".gradle", ".sass-cache", ".angular", ".next", ".nuxt",
+            ".cache", ".terraform", ".tox", ".venv", "__pycache__"));
+    private static final Set<String> IGNORED = new HashSet<String>(Arrays.asList(".git", ".hg", ".svn", ".idea"));
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private final Log log;
+    private final List<Pattern> patterns = new ArrayList<Pattern>();
+    private final long maxFiles;
+    private final long maxBytes;
+    private final int maxDepth;
+
+    /**
+     * @param log      log
+     * @param patterns directory name patterns, '*' wildcards are allowed
+     * @param maxFiles directories with more files are excluded
+     * @param maxBytes directories with more bytes are excluded
+     * @param maxDepth how deep under the module basedir to look
+     */
+    public HeavyDirectoryScanner(Log log, Collection<String> patterns, long maxFiles, long maxBytes, int maxDepth) {
+        this.log = log;
+        for (String pattern : patterns) {
+            String[] parts = pattern.trim().split("\\*", -1);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < parts.length; i++)
+                sb.append(i == 0 ? "" : ".*").append(Pattern.quote(parts[i]));
+            this.patterns.add(Pattern.compile(sb.toString()));
+        }
+        this.maxFiles = maxFiles;
+        this.maxBytes = maxBytes;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * @param projects        modules to scan
+     * @param reactorProjects all modules, nested modules are not excluded
+     * @return module -> absolute paths of directories to exclude
+     * @throws InterruptedException interrupted
+     */
+    public Map<MavenProject, List<String>> scan(List<MavenProject> projects, List<MavenProject> reactorProjects) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        List<Callable<List<String>>> tasks = new ArrayList<Callable<List<String>>>(projects.size());
+        for (MavenProject project : projects)
+            tasks.add(() -> scan(project, reactorProjects));
+        int threads = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Map<MavenProject, List<String>> result = new HashMap<MavenProject, List<String>>();
+        int count = 0;
+        try {
+            List<Future<List<String>>> futures = executor.invokeAll(tasks, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            for (int i = 0; i < futures.size(); i++) {
+                Future<List<String>> future = futures.get(i);
+                MavenProject project = projects.get(i);
+                try {
+                    List<String> directories = future.isCancelled() ? Collections.<String>emptyList() : future.get();
+                    if (future.isCancelled())
+                        log.warn("Scan for heavy directories timed out in " + project.getBasedir());
+                    result.put(project, directories);
+                    count += directories.size();
+                } catch (ExecutionException e) {
+                    log.warn("Scan for heavy directories failed in " + project.getBasedir() + ": " + e.getCause());
+                    result.put(project, Collections.<String>emptyList());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("");
+        log.info("Auto-excluded directories: " + count + " (" + (System.currentTimeMillis() - start) + " ms)");
+        for (MavenProject project : projects)
+            for (String directory : result.get(project))
+                log.info("  " + directory);
+        return result;
+    }
+
+    private List<String> scan(MavenProject project, List<MavenProject> reactorProjects) {
+        Path basedir = project.getBasedir().toPath().toAbsolutePath().normalize();
+        // never excluded or looked into, IDEA must index and copy all of them; their ancestors are looked into
+        Set<Path> keep = new HashSet<Path>();
+        for (Object root : project.getCompileSourceRoots())
+            keep.add(normalize(basedir, (String) root));
+        for (Object root : project.getTestCompileSourceRoots())
+            keep.add(normalize(basedir, (String) root));
+        for (Object resource : project.getBuild().getResources())
+            keep.add(normalize(basedir, ((Resource) resource).getDirectory()));
+        for (Object resource : project.getBuild().getTestResources())
+            keep.add(normalize(basedir, ((Resource) resource).getDirectory()));
+        keep.add(basedir.resolve("webapp"));
+        // not looked into at all, their ancestors are never excluded
+        Set<Path> skip = new HashSet<Path>();
+        skip.add(normalize(basedir, project.getBuild().getDirectory()));
+        for (MavenProject reactorProject : reactorProjects)
+            if (reactorProject != project)
+                skip.add(reactorProject.getBasedir().toPath().toAbsolutePath().normalize());
+
+        List<String> result = new ArrayList<String>();
+        Deque<Path> queue = new ArrayDeque<Path>();
+        queue.add(basedir);
+        while (!queue.isEmpty() && !Thread.currentThread().isInterrupted()) {
+            Path dir = queue.poll();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir, Files::isDirectory)) {
+                for (Path child : children) {
+                    String name = child.getFileName().toString();
+                    if (IGNORED.contains(name) || skip.contains(child) || keep.contains(child) || Files.isSymbolicLink(child))
+                        continue;
+                    if (isAncestor(child, keep) || isAncestor(child, skip)) {
+                        if (basedir.relativize(child).getNameCount() < maxDepth)
+                            queue.add(child);
+                    } else if (matches(name) || isHeavy(child)) {
+                        result.add(child.toString());
+                    }
+                }
+            } catch (IOException e) {
+                log.debug("Can't list " + dir + ": " + e.getMessage());
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private static Path normalize(Path basedir, String path) {
+        return basedir.resolve(path).toAbsolutePath().normalize();
+    }
+
+    /**
+     * @return whether the directory contains one of the paths, the paths themselves are not their own ancestors
+     */
+    private static boolean isAncestor(Path dir, Set<Path> paths) {
+        for (Path path : paths)
+            if (!path.equals(dir) && path.startsWith(dir))
+                return true;
+        return false;
+    }
+
+    private boolean matches(String name) {
+        for (Pattern pattern : patterns)
+            if (pattern.matcher(name).matches())
+                return true;
+        return false;
+    }
+
+    /**
+     * @param dir directory
+     * @return whether the directory has more files or bytes than allowed, counting stops as soon as it is known
+     */
+    private boolean isHeavy(Path dir) {
+        final long[] files = new long[1];
+        final long[] bytes = new long[1];
+        final boolean[] heavy = new boolean[1];
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    files[0]++;
+                    bytes[0] += attrs.size();
+                    if (files[0] > maxFiles || bytes[0] > maxBytes) {
+                        heavy[0] = true;
+                        return FileVisitResult.TERMINATE;
+                    }
+                    return Thread.currentThread().isInterrupted() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.debug("Can't scan " + dir + ": " + e.getMessage());
+        }
+        return heavy[0];
+    }
+}
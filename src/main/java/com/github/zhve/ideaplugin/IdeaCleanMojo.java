@@ -42,12 +42,17 @@ public class IdeaCleanMojo extends AbstractMojo {
     public void execute() throws MojoExecutionException, MojoFailureException {
         getLog().info("Delete Workspace Files:");
         for (MavenProject project : reactorProjects) {
-            Util.deleteFileOrDirectory(getLog(), new File(project.getBasedir(), project.getArtifactId() + ".iml"));
+            JfrEvents.Deletion event = JfrEvents.deletion(project.getId());
+            // sizes cost a stat per file, only taken for a recording
+            long[] deleted = event != null && event.isEnabled() ? new long[2] : null;
+            Util.deleteFileOrDirectory(getLog(), new File(project.getBasedir(), project.getArtifactId() + ".iml"), deleted);
             if (project.isExecutionRoot()) {
-                Util.deleteFileOrDirectory(getLog(), new File(project.getBasedir(), ".idea"));
-                Util.deleteFileOrDirectory(getLog(), new File(project.getBasedir(), project.getArtifactId() + ".ipr"));
-                Util.deleteFileOrDirectory(getLog(), new File(project.getBasedir(), project.getArtifactId() + ".iws"));
+                Util.deleteFileOrDirectory(getLog(), new File(project.getBasedir(), ".idea"), deleted);
+                Util.deleteFileOrDirectory(getLog(), new File(project.getBasedir(), project.getArtifactId() + ".ipr"), deleted);
+                Util.deleteFileOrDirectory(getLog(), new File(project.getBasedir(), project.getArtifactId() + ".iws"), deleted);
             }
+            if (deleted != null)
+                event.end(deleted[0], deleted[1]);
         }
     }
 }
@@ -31,7 +31,15 @@ import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.settings.Settings;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.context.Context;
+import org.codehaus.plexus.context.ContextException;
+import org.codehaus.plexus.personality.plexus.lifecycle.phase.Contextualizable;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -41,7 +49,7 @@ import java.util.List;
  * @since 5/18/2014.
  */
 @Mojo(name = "list", aggregator = true)
-public class IdeaListMojo extends AbstractMojo {
+public class IdeaListMojo extends AbstractMojo implements Contextualizable {
     @Component
     private ArtifactResolver artifactResolver;
 
@@ -57,10 +65,135 @@ public class IdeaListMojo extends AbstractMojo {
     @Parameter(property = "localRepository", required = true, readonly = true)
     private ArtifactRepository localRepository;
 
+    /**
+     * Exclusions applied to all modules in "groupId:artifactId" format, '*' wildcards are allowed
+     */
+    @Parameter(property = "exclusions")
+    private List<String> exclusions;
+
+    /**
+     * Report of version conflicts: every losing path together with the winning version
+     */
+    @Parameter(property = "conflictReport", defaultValue = "${project.build.directory}/idea-conflicts.txt")
+    private File conflictReport;
+
+    /**
+     * JSON report of resolution latency per module, artifact and origin repository, the summary is logged as well
+     */
+    @Parameter(property = "latencyReport", defaultValue = "${project.build.directory}/idea-latency.json")
+    private File latencyReport;
+
+    /**
+     * Write idea-classpath-{compile,runtime,test}.txt to the build directory of every module,
+     * reactor modules are mapped to their output directories
+     */
+    @Parameter(property = "exportClasspath", defaultValue = "false")
+    private boolean exportClasspath;
+
+    /**
+     * Backend of transitive resolution: maven2 (Maven 2 API, modules one by one) or aether
+     * (Maven Resolver of Maven 3.1+, modules in parallel with a shared cache)
+     */
+    @Parameter(property = "resolver", defaultValue = "maven2")
+    private String resolver;
+
+    /**
+     * Number of modules resolved at once by the aether resolver
+     */
+    @Parameter(property = "resolverThreads", defaultValue = "4")
+    private int resolverThreads;
+
+    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true)
+    private Object repositorySystemSession;
+
+    /**
+     * Probe remote repositories with the budgets below before resolution and after failures, and skip the ones
+     * which fail repeatedly for the rest of the run. The budgets become transfer timeouts of resolver=aether.
+     * Disabled offline.
+     */
+    @Parameter(property = "idea.repositoryHealth", defaultValue = "false")
+    private boolean repositoryHealth;
+
+    /**
+     * Connect budget of a remote repository request in milliseconds
+     */
+    @Parameter(property = "repositoryConnectTimeout", defaultValue = "10000")
+    private int repositoryConnectTimeout;
+
+    /**
+     * Read budget of a remote repository request in milliseconds
+     */
+    @Parameter(property = "repositoryReadTimeout", defaultValue = "30000")
+    private int repositoryReadTimeout;
+
+    /**
+     * Consecutive failures after which a remote repository is skipped for the rest of the run
+     */
+    @Parameter(property = "repositoryFailures", defaultValue = "3")
+    private int repositoryFailures;
+
+    /**
+     * Minutes snapshot metadata checked in a remote repository is not checked again, in this and the next runs.
+     * Repositories which check more often, "always" included, are checked less often then; 0 keeps repository policies.
+     */
+    @Parameter(property = "snapshotTtl", defaultValue = "0")
+    private int snapshotTtl;
+
+    /**
+     * Check snapshot metadata of all remote repositories regardless of snapshotTtl and update policies
+     */
+    @Parameter(property = "idea.refreshSnapshots", defaultValue = "false")
+    private boolean refreshSnapshots;
+
+    @Parameter(defaultValue = "${settings.offline}", readonly = true)
+    private boolean offline;
+
+    @Parameter(defaultValue = "${settings}", readonly = true)
+    private Settings settings;
+
+    private PlexusContainer container;
+
+    // Contextualizable
+
+    @Override
+    public void contextualize(Context context) throws ContextException {
+        container = (PlexusContainer) context.get(PlexusConstants.PLEXUS_KEY);
+    }
+
+    // AbstractMojo
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        ArtifactDependencyResolver resolver = new ArtifactDependencyResolver(getLog(), artifactFactory, artifactResolver, localRepository, artifactMetadataSource);
-        ArtifactHolder artifactHolder = new ArtifactHolder(getLog(), resolver, reactorProjects);
+        ArtifactDependencyResolver resolver = new ArtifactDependencyResolver(getLog(), artifactFactory, artifactResolver, localRepository, artifactMetadataSource, ExclusionMatcher.compile(exclusions));
+        if (repositoryHealth && !offline)
+            resolver.setRepositoryHealth(new RepositoryHealth(getLog(), repositoryConnectTimeout, repositoryReadTimeout, repositoryFailures, settings.getActiveProxy()));
+        if (!offline)
+            resolver.setSnapshotPolicy(new SnapshotPolicy(getLog(), snapshotTtl, refreshSnapshots));
+        resolver.setResolver(this.resolver, container, repositorySystemSession, resolverThreads);
+        ArtifactHolder artifactHolder;
+        try {
+            artifactHolder = new ArtifactHolder(getLog(), resolver, reactorProjects);
+        } finally {
+            resolver.restore();
+        }
+        resolver.getLatencyReport().log(getLog());
+        if (resolver.getRepositoryHealth() != null)
+            resolver.getRepositoryHealth().log();
+        if (resolver.getSnapshotPolicy() != null)
+            resolver.getSnapshotPolicy().log();
+        try {
+            if (conflictReport != null)
+                resolver.getConflictReport().write(conflictReport);
+            if (latencyReport != null)
+                resolver.getLatencyReport().write(latencyReport);
+            if (exportClasspath) {
+                ClasspathExport export = new ClasspathExport(localRepository, reactorProjects);
+                for (MavenProject project : reactorProjects)
+                    export.write(project, artifactHolder.getClasspath(project));
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
 
         for (MavenProject project : reactorProjects) {
             List<Artifact> list = new ArrayList<Artifact>(artifactHolder.getDependencies(project));
@@ -0,0 +1,127 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Combine the outputs of all shards generated with shardCount/shardIndex into the workspace
+ *
+ * @since 10/19/2026
+ */
+@Mojo(name = "merge", aggregator = true)
+public class IdeaMergeMojo extends AbstractMojo {
+    static final String SHARD_PREFIX = "shard-";
+    static final String MANIFEST = "shard.properties";
+
+    @Parameter(property = "reactorProjects", required = true, readonly = true)
+    private List<MavenProject> reactorProjects;
+
+    /**
+     * Directory with shard outputs, the same as shardDirectory of the idea goal
+     */
+    @Parameter(property = "shardDirectory", defaultValue = "${project.build.directory}/idea-shards")
+    private File shardDirectory;
+
+    /**
+     * Merged files are copied here and published together when all of them are ready
+     */
+    @Parameter(property = "stagingDirectory", defaultValue = "${project.build.directory}/idea-staging")
+    private File stagingDirectory;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        File root = Util.getExecutionRoot(reactorProjects).getBasedir();
+        File[] shards = shardDirectory.listFiles((dir, name) -> name.startsWith(SHARD_PREFIX));
+        if (shards == null || shards.length == 0)
+            throw new MojoFailureException("No shards found in " + shardDirectory);
+        try {
+            // check all shards are here
+            Properties first = readManifest(shards[0]);
+            int shardCount = Integer.parseInt(first.getProperty("shardCount"));
+            Set<String> modules = new HashSet<String>();
+            for (int i = 0; i < shardCount; i++) {
+                File shard = new File(shardDirectory, SHARD_PREFIX + i);
+                if (!new File(shard, MANIFEST).isFile())
+                    throw new MojoFailureException("Shard " + i + " of " + shardCount + " is missing in " + shardDirectory);
+                Properties manifest = readManifest(shard);
+                if (Integer.parseInt(manifest.getProperty("shardCount")) != shardCount)
+                    throw new MojoFailureException("Shard " + i + " was generated with another shardCount: " + manifest.getProperty("shardCount"));
+                modules.addAll(Arrays.asList(manifest.getProperty("modules", "").split(",")));
+            }
+            for (MavenProject project : reactorProjects)
+                if (!modules.contains(project.getId()))
+                    getLog().warn("Module is not generated by any shard: " + project.getId());
+
+            // copy
+            WorkspaceStage stage = new WorkspaceStage(getLog(), stagingDirectory);
+            try {
+                for (int i = 0; i < shardCount; i++) {
+                    Path shard = new File(shardDirectory, SHARD_PREFIX + i).toPath();
+                    List<Path> files;
+                    try (Stream<Path> walk = Files.walk(shard)) {
+                        files = walk.filter(Files::isRegularFile).filter(p -> !p.getFileName().toString().equals(MANIFEST)).collect(Collectors.toList());
+                    }
+                    for (Path file : files) {
+                        File target = root.toPath().resolve(shard.relativize(file).toString()).toFile();
+                        Files.copy(file, stage.stage(target).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                stage.commit();
+            } finally {
+                stage.rollback();
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+
+    private static Properties readManifest(File shard) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(new File(shard, MANIFEST))) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    static void writeManifest(File file, int shardIndex, int shardCount, List<MavenProject> projects) throws IOException {
+        StringBuilder modules = new StringBuilder();
+        for (MavenProject project : projects)
+            modules.append(modules.length() == 0 ? "" : ",").append(project.getId());
+        Properties properties = new Properties();
+        properties.setProperty("shardIndex", String.valueOf(shardIndex));
+        properties.setProperty("shardCount", String.valueOf(shardCount));
+        properties.setProperty("modules", modules.toString());
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, "idea-maven-plugin shard");
+        }
+    }
+}
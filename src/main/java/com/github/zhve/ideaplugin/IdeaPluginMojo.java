@@ -23,18 +23,27 @@ import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.ArtifactUtils;
 import org.apache.maven.model.IssueManagement;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
+import org.codehaus.plexus.util.ReaderFactory;
 import org.codehaus.plexus.util.StringUtils;
+import org.codehaus.plexus.util.WriterFactory;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.Xpp3DomWriter;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -188,9 +197,119 @@ public class IdeaPluginMojo extends IdeaPluginMojoBase {
     @Parameter(property = "performCodeAnalysisBeforeCommit", defaultValue = "false")
     private boolean performCodeAnalysisBeforeCommit;
 
+    /**
+     * Generate .idea/libraries with sources and javadoc jars found in the local repository
+     */
+    @Parameter(property = "generateLibraries", defaultValue = "true")
+    private boolean generateLibraries;
+
+    /**
+     * Compile independent modules in parallel
+     */
+    @Parameter(property = "parallelCompilation", defaultValue = "true")
+    private boolean parallelCompilation;
+
+    /**
+     * Heap size of the build process in megabytes, IDEA default if not set
+     */
+    @Parameter(property = "buildProcessHeapSize")
+    private Integer buildProcessHeapSize;
+
+    /**
+     * Shared VM options of the build process
+     */
+    @Parameter(property = "buildProcessVmOptions")
+    private String buildProcessVmOptions;
+
+    /**
+     * Generate annotation processing profiles from the maven-compiler-plugin configuration of every module
+     */
+    @Parameter(property = "annotationProcessing", defaultValue = "true")
+    private boolean annotationProcessing;
+
+    /**
+     * Exclude heavy non-source directories under module basedirs from indexing
+     */
+    @Parameter(property = "autoExclude", defaultValue = "true")
+    private boolean autoExclude;
+
+    /**
+     * Directory names to exclude, '*' wildcards are allowed, node_modules, .gradle and other well-known names if not set
+     */
+    @Parameter(property = "autoExcludePatterns")
+    private List<String> autoExcludePatterns;
+
+    /**
+     * Other directories with more files than this are excluded
+     */
+    @Parameter(property = "autoExcludeMaxFiles", defaultValue = "10000")
+    private long autoExcludeMaxFiles;
+
+    /**
+     * Other directories with more megabytes than this are excluded
+     */
+    @Parameter(property = "autoExcludeMaxSize", defaultValue = "200")
+    private long autoExcludeMaxSize;
+
+    /**
+     * How deep under the module basedir to look for directories to exclude
+     */
+    @Parameter(property = "autoExcludeDepth", defaultValue = "4")
+    private int autoExcludeDepth;
+
+    /**
+     * Modules to keep loaded in IDEA: comma separated patterns (artifactId or groupId:artifactId, '*' wildcards
+     * are allowed). All modules are generated, the rest of the reactor outside of these modules and their reactor
+     * dependencies is written to the unloaded modules list of .idea/workspace.xml. The file is left as is if not set.
+     */
+    @Parameter(property = "idea.loadedModules")
+    private List<String> loadedModules;
+
+    private Map<MavenProject, List<String>> excludeDirectoryMap = Collections.emptyMap();
+
+    private static final String EXCLUDE_FACT = "exclude:";
+
+    @Override
+    protected void doPrepare(List<MavenProject> projects) throws Exception {
+        if (!autoExclude)
+            return;
+        excludeDirectoryMap = scanHeavyDirectories(projects);
+        for (Map.Entry<MavenProject, List<String>> entry : excludeDirectoryMap.entrySet())
+            addWorkspaceFact(EXCLUDE_FACT + entry.getKey().getId(), formatExcludeFact(entry.getKey(), entry.getValue()));
+    }
+
+    private Map<MavenProject, List<String>> scanHeavyDirectories(List<MavenProject> projects) throws InterruptedException {
+        List<String> patterns = autoExcludePatterns == null || autoExcludePatterns.isEmpty() ? HeavyDirectoryScanner.DEFAULT_PATTERNS : autoExcludePatterns;
+        HeavyDirectoryScanner scanner = new HeavyDirectoryScanner(getLog(), patterns, autoExcludeMaxFiles, autoExcludeMaxSize * 1024 * 1024, autoExcludeDepth);
+        return scanner.scan(projects, getReactorProjects());
+    }
+
+    /**
+     * @return excluded directories relative to the module, the same in every checkout
+     */
+    private static String formatExcludeFact(MavenProject project, List<String> directories) {
+        List<String> paths = new ArrayList<String>(directories.size());
+        for (String directory : directories)
+            paths.add(Util.getRelativePath(project.getBasedir(), new File(directory)).replace(File.separatorChar, '/'));
+        Collections.sort(paths);
+        return paths.toString();
+    }
+
+    @Override
+    protected Map<String, String> getWorkspaceFacts(Set<String> names) throws Exception {
+        Map<String, String> facts = super.getWorkspaceFacts(names);
+        List<MavenProject> projects = new ArrayList<MavenProject>();
+        for (MavenProject project : getReactorProjects())
+            if (names.contains(EXCLUDE_FACT + project.getId()))
+                projects.add(project);
+        if (!projects.isEmpty())
+            for (Map.Entry<MavenProject, List<String>> entry : scanHeavyDirectories(projects).entrySet())
+                facts.put(EXCLUDE_FACT + entry.getKey().getId(), formatExcludeFact(entry.getKey(), entry.getValue()));
+        return facts;
+    }
+
     protected void doExecute() throws Exception {
         // prepare
-        ArtifactHolder artifactHolder = getArtifactHolder();
         VelocityWorker velocityWorker = getVelocityWorker();
         VelocityContext context = new VelocityContext();
         MavenProject project = getProject();
@@ -200,6 +319,8 @@ public class IdeaPluginMojo extends IdeaPluginMojoBase {
         String standardBuildDirectory = project.getFile().getParent() + File.separator + "target";
         context.put("buildDirectory", buildDirectory.startsWith(standardBuildDirectory) ? standardBuildDirectory : buildDirectory);
         context.put("context", this);
+        List<String> excludeDirectories = excludeDirectoryMap.get(project);
+        context.put("excludeDirectories", excludeDirectories == null ? Collections.<String>emptyList() : excludeDirectories);
         context.put("gaeHome", gaeHome == null ? null : new File(gaeHome).getCanonicalPath());
         context.put("MD", "$MODULE_DIR$");
         context.put("packagingPom", "pom".equals(project.getPackaging()));
@@ -209,21 +330,187 @@ public class IdeaPluginMojo extends IdeaPluginMojoBase {
         checkIfExtraResourcesinSource(getProject().getBuild().getTestSourceDirectory());
         checkIfExtraResourcesinSource(getProject().getBuild().getSourceDirectory());
         // generate iml file
-        createFile(context, velocityWorker.getImlTemplate(), "iml");
+        createFile(context, velocityWorker.getImlTemplate(), "iml", getDependencies(project).size());
+    }
+
+    @Override
+    protected void doExecuteWorkspace() throws Exception {
+        createCompilerFile();
+        createWorkspaceFile();
+        File directory = new File(new File(getOutputDirectory(), ".idea"), "libraries");
+        // system jars are shared by all modules, one library per file
+        Map<String, String> systemLibraries = new TreeMap<String, String>();
+        for (Artifact artifact : getAllDependencies())
+            if (isSystemScope(artifact))
+                systemLibraries.put(getSystemLibraryName(artifact), getSystemLibraryUrl(artifact));
+        for (Map.Entry<String, String> entry : systemLibraries.entrySet()) {
+            VelocityContext context = new VelocityContext();
+            context.put("context", this);
+            context.put("name", entry.getKey());
+            context.put("url", entry.getValue());
+            // paths differing only in special characters get different files
+            File file = new File(directory, entry.getKey().replaceAll("[^A-Za-z0-9]", "_") + "_" + String.format("%08x", entry.getKey().hashCode()) + ".xml");
+            mergeTemplate(context, getVelocityWorker().getSystemLibraryTemplate(), file, 1);
+        }
+        if (!generateLibraries)
+            return;
+        Map<String, Artifact> libraries = new TreeMap<String, Artifact>();
+        for (Artifact artifact : getAllDependencies())
+            if (!isSystemScope(artifact) && !isReactorArtifact(artifact))
+                libraries.put(formatGAV(artifact), artifact);
+        prefetchModuleLibraryAttachments(libraries.values());
+        for (Artifact artifact : libraries.values()) {
+            VelocityContext context = new VelocityContext();
+            context.put("context", this);
+            context.put("artifact", artifact);
+            context.put("MR", "$MAVEN_REPOSITORY$");
+            File file = new File(directory, formatGAV(artifact).replaceAll("[^A-Za-z0-9]", "_") + ".xml");
+            mergeTemplate(context, getVelocityWorker().getLibraryTemplate(), file, 1);
+        }
+    }
+
+    @Override
+    protected void doRestoreWorkspace() throws Exception {
+        // workspace.xml and compiler.xml are merged with the user's own files and are never cached
+        createCompilerFile();
+        createWorkspaceFile();
+    }
+
+    /**
+     * Replace in .idea/compiler.xml what the plugin generates, other components and options set in IDEA are kept
+     */
+    private void createCompilerFile() throws Exception {
+        List<String> resourcePatterns = new ArrayList<String>();
+        for (String pattern : wildcardResourcePatterns.split(";"))
+            if (!pattern.trim().isEmpty())
+                resourcePatterns.add(pattern.trim());
+        VelocityContext context = new VelocityContext();
+        context.put("context", this);
+        context.put("parallelCompilation", parallelCompilation);
+        context.put("buildProcessHeapSize", buildProcessHeapSize);
+        context.put("buildProcessVmOptions", StringUtils.isEmpty(buildProcessVmOptions) ? null : buildProcessVmOptions);
+        context.put("resourcePatterns", resourcePatterns);
+        context.put("profiles", annotationProcessing ? AnnotationProcessingProfile.create(getReactorProjects()) : Collections.emptyList());
+        File file = new File(new File(getOutputDirectory(), ".idea"), "compiler.xml");
+        mergeTemplate(context, getVelocityWorker().getCompilerTemplate(), file, 0);
+
+        File existing = new File(new File(getProject().getBasedir(), ".idea"), "compiler.xml");
+        if (!existing.isFile())
+            return;
+        Xpp3Dom root;
+        try (Reader reader = ReaderFactory.newXmlReader(existing)) {
+            root = Xpp3DomBuilder.build(reader);
+        } catch (XmlPullParserException e) {
+            getLog().warn("Compiler settings are overwritten, can't parse " + existing + ": " + e.getMessage());
+            return;
+        }
+        File staged = getWorkspaceStage().getFiles().get(file.getAbsoluteFile());
+        Xpp3Dom generated;
+        try (Reader reader = ReaderFactory.newXmlReader(staged)) {
+            generated = Xpp3DomBuilder.build(reader);
+        }
+        for (Xpp3Dom component : generated.getChildren("component"))
+            mergeComponent(root, component);
+        try (Writer writer = WriterFactory.newXmlWriter(staged)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            Xpp3DomWriter.write(writer, root);
+        }
+    }
+
+    /**
+     * Put the generated children into the component of the same name: options by name, other elements by element name.
+     * Annotation processing and resource patterns always come from the plugin, other children of the existing component stay.
+     */
+    private static void mergeComponent(Xpp3Dom root, Xpp3Dom generated) {
+        Xpp3Dom component = null;
+        for (Xpp3Dom child : root.getChildren("component"))
+            if (generated.getAttribute("name").equals(child.getAttribute("name")))
+                component = child;
+        if (component == null) {
+            root.addChild(generated);
+            return;
+        }
+        Set<String> owned = new HashSet<String>(Arrays.asList("annotationProcessing", "resourceExtensions", "wildcardResourcePatterns"));
+        for (Xpp3Dom child : generated.getChildren())
+            owned.add(getMergeKey(child));
+        for (int i = component.getChildCount() - 1; i >= 0; i--)
+            if (owned.contains(getMergeKey(component.getChild(i))))
+                component.removeChild(i);
+        for (Xpp3Dom child : generated.getChildren())
+            component.addChild(child);
+    }
+
+    private static String getMergeKey(Xpp3Dom element) {
+        return "option".equals(element.getName()) ? "option:" + element.getAttribute("name") : element.getName();
+    }
+
+    /**
+     * Replace the UnloadedModulesList component of .idea/workspace.xml, other components are kept
+     */
+    private void createWorkspaceFile() throws Exception {
+        if (loadedModules == null || loadedModules.isEmpty())
+            return;
+        ReactorGraph graph = getReactorGraph();
+        List<MavenProject> selected = graph.select(loadedModules);
+        if (selected.isEmpty())
+            throw new MojoFailureException("No reactor modules match idea.loadedModules=" + loadedModules);
+        Set<MavenProject> loaded = new HashSet<MavenProject>(graph.closure(selected));
+        List<String> unloaded = new ArrayList<String>();
+        for (MavenProject project : getReactorProjects())
+            if (!loaded.contains(project))
+                unloaded.add(project.getArtifactId());
+        Collections.sort(unloaded);
+        getLog().info("");
+        getLog().info("Unloaded Modules: " + unloaded.size() + " of " + getReactorProjects().size());
+
+        File existing = new File(new File(getProject().getBasedir(), ".idea"), "workspace.xml");
+        Xpp3Dom root;
+        if (existing.isFile()) {
+            try (Reader reader = ReaderFactory.newXmlReader(existing)) {
+                root = Xpp3DomBuilder.build(reader);
+            } catch (XmlPullParserException e) {
+                getLog().warn("Unloaded modules are not written, can't parse " + existing + ": " + e.getMessage());
+                return;
+            }
+        } else {
+            root = new Xpp3Dom("project");
+            root.setAttribute("version", "4");
+        }
+        for (int i = root.getChildCount() - 1; i >= 0; i--)
+            if ("component".equals(root.getChild(i).getName()) && "UnloadedModulesList".equals(root.getChild(i).getAttribute("name")))
+                root.removeChild(i);
+        Xpp3Dom component = new Xpp3Dom("component");
+        component.setAttribute("name", "UnloadedModulesList");
+        for (String name : unloaded) {
+            Xpp3Dom module = new Xpp3Dom("module");
+            module.setAttribute("name", name);
+            component.addChild(module);
+        }
+        root.addChild(component);
+        try (Writer writer = WriterFactory.newXmlWriter(getWorkspaceStage().stage(new File(new File(getOutputDirectory(), ".idea"), "workspace.xml")))) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            Xpp3DomWriter.write(writer, root);
+        }
     }
 
     private void checkIfExtraResourcesinSource(String dir) throws MojoExecutionException {
         List<Path> result;
         if (!new File(dir).exists())
             return;
+        JfrEvents.SourceScan event = JfrEvents.sourceScan(getProject().getId(), dir);
+        List<Path> files;
         try (Stream<Path> walk = Files.walk(Paths.get(dir))) {
-             result = walk
+             files = walk
                     .filter(p -> !Files.isDirectory(p))   // not a directory
-                    .filter(this::validFile)       // check end with
-                    .collect(Collectors.toList());        // collect all matched to a List
+                    .collect(Collectors.toList());        // collect all files to a List
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        if (event != null)
+            event.end(files);
+        result = files.stream()
+                .filter(this::validFile)                  // check end with
+                .collect(Collectors.toList());            // collect all matched to a List
         if (!result.isEmpty()) {
             getLog().warn("Error while building " + getProject().getBasedir() + " errors found in src: " + result);
         }
@@ -240,20 +527,55 @@ public class IdeaPluginMojo extends IdeaPluginMojoBase {
             return String.format("Maven: %s:%s:%s", artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
     }
 
-    public String formatSystemPath(Artifact artifact) {
-        if (artifact.getFile() != null) {
-            File basedir = getProject().getBasedir();
-            try {
-                Path relativePath = basedir.toPath().relativize(artifact.getFile().toPath());
-                return String.format("$MODULE_DIR$/%s", relativePath.toString());
-            } catch (IllegalArgumentException e) {
-                return artifact.getFile().toPath().normalize().toString();
-            } catch (Exception e) {
-                getLog().error("Failed to formatSystemPath: " + e.getMessage() + " " + basedir + " and " + artifact.getFile());
-                return "FILE_NOT_SET";
-            }
-        } else
-            return "FILE_NOT_SET";
+    public String escapeXmlAttribute(String text) {
+        return Util.escapeXmlAttribute(text);
+    }
+
+    /**
+     * @param artifact system scope artifact
+     * @return project library name, the same for all artifacts with the same canonical file
+     */
+    public String getSystemLibraryName(Artifact artifact) {
+        String path = getSystemLibraryPath(artifact);
+        return "System: " + (path == null ? artifact.getDependencyConflictId() : path);
+    }
+
+    private String getSystemLibraryUrl(Artifact artifact) {
+        String path = getSystemLibraryPath(artifact);
+        if (path == null)
+            return null;
+        if (!new File(path).isAbsolute())
+            return "$PROJECT_DIR$/" + path;
+        // outside of the root, may be another file or none on another machine
+        addWorkspaceFact(FILE_FACT + path, String.valueOf(new File(path).isFile()));
+        return path;
+    }
+
+    /**
+     * @param artifact system scope artifact
+     * @return canonical path relative to the execution root if the file is inside of it, '/' separated
+     */
+    private String getSystemLibraryPath(Artifact artifact) {
+        if (artifact.getFile() == null)
+            return null;
+        File file = getCanonicalFile(artifact.getFile());
+        File root = getCanonicalFile(Util.getExecutionRoot(getReactorProjects()).getBasedir());
+        try {
+            String relativePath = Util.getRelativePath(root, file);
+            if (!relativePath.startsWith(".."))
+                return relativePath.replace(File.separatorChar, '/');
+        } catch (IllegalArgumentException e) {
+            // another drive
+        }
+        return file.getPath().replace(File.separatorChar, '/');
+    }
+
+    private static File getCanonicalFile(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
     }
 
     public boolean isSystemScope(Artifact artifact) {
@@ -283,12 +605,19 @@ public class IdeaPluginMojo extends IdeaPluginMojoBase {
             return warProjects.get(0);
     }
 
-    private void createFile(VelocityContext context, Template template, String extension) throws Exception {
-        File file = new File(getProject().getBasedir(), getProject().getArtifactId() + "." + extension);
-        FileOutputStream output = new FileOutputStream(file);
+    private void createFile(VelocityContext context, Template template, String extension, int artifacts) throws Exception {
+        mergeTemplate(context, template, new File(getOutputDirectory(), getProject().getArtifactId() + "." + extension), artifacts);
+    }
+
+    private void mergeTemplate(VelocityContext context, Template template, File file, int artifacts) throws Exception {
+        JfrEvents.TemplateMerge event = JfrEvents.templateMerge(getProject().getId(), template.getName(), file);
+        File staged = getWorkspaceStage().stage(file);
+        FileOutputStream output = new FileOutputStream(staged);
         OutputStreamWriter writer = new OutputStreamWriter(output, "UTF-8");
         template.merge(context, writer);
         writer.close();
+        if (event != null)
+            event.end(artifacts, staged);
     }
 
     public List<String> getGaeApiJars() {
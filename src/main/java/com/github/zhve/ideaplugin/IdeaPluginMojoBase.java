@@ -35,18 +35,35 @@ import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.MavenProjectBuilder;
+import org.apache.maven.settings.Settings;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.context.Context;
+import org.codehaus.plexus.context.ContextException;
+import org.codehaus.plexus.personality.plexus.lifecycle.phase.Contextualizable;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Vasiliy Zhukov
  * @since 07/26/2010
  */
-public abstract class IdeaPluginMojoBase extends AbstractMojo {
+public abstract class IdeaPluginMojoBase extends AbstractMojo implements Contextualizable {
     @Component
     private ArtifactResolver artifactResolver;
 
@@ -68,10 +85,212 @@ public abstract class IdeaPluginMojoBase extends AbstractMojo {
     @Parameter(defaultValue = "${project.compileClasspathElements}", readonly = true, required = true)
     private List<String> compilePath;
 
+    /**
+     * Exclusions applied to all modules in "groupId:artifactId" format, '*' wildcards are allowed
+     */
+    @Parameter(property = "exclusions")
+    private List<String> exclusions;
+
+    /**
+     * Report of version conflicts: every losing path together with the winning version
+     */
+    @Parameter(property = "conflictReport", defaultValue = "${project.build.directory}/idea-conflicts.txt")
+    private File conflictReport;
+
+    /**
+     * JSON report of resolution latency per module, artifact and origin repository, the summary is logged as well
+     */
+    @Parameter(property = "latencyReport", defaultValue = "${project.build.directory}/idea-latency.json")
+    private File latencyReport;
+
+    /**
+     * Reverse dependency index for idea1:who, written when the whole reactor is generated in one process
+     */
+    @Parameter(property = "whoIndex", defaultValue = "${project.build.directory}/idea-who.txt")
+    private File whoIndex;
+
+    /**
+     * Working set: comma separated module patterns (artifactId or groupId:artifactId, '*' wildcards are allowed).
+     * Only these modules and their reactor dependencies are resolved and generated.
+     */
+    @Parameter(property = "idea.modules")
+    private List<String> modules;
+
+    /**
+     * Number of shards to split the reactor into, every shard is generated by its own process, see idea1:merge
+     */
+    @Parameter(property = "shardCount", defaultValue = "1")
+    private int shardCount;
+
+    /**
+     * Zero-based index of the shard to generate when shardCount is greater than 1
+     */
+    @Parameter(property = "shardIndex", defaultValue = "0")
+    private int shardIndex;
+
+    /**
+     * Directory for shard outputs, every shard writes to its own shard-N subdirectory
+     */
+    @Parameter(property = "shardDirectory", defaultValue = "${project.build.directory}/idea-shards")
+    private File shardDirectory;
+
+    /**
+     * Workspace files are rendered here and published together when all of them are ready
+     */
+    @Parameter(property = "stagingDirectory", defaultValue = "${project.build.directory}/idea-staging")
+    private File stagingDirectory;
+
+    /**
+     * File to remember missing sources and javadoc jars between runs, disabled if not set
+     */
+    @Parameter(property = "missingSourcesCache")
+    private File missingSourcesCache;
+
+    /**
+     * Index file of the local repository, directories looked up are checked and updated, disabled if not set.
+     * Used for sources and javadoc lookups and, offline, for version ranges.
+     */
+    @Parameter(property = "localRepositoryIndex")
+    private File localRepositoryIndex;
+
+    /**
+     * Write idea-classpath-{compile,runtime,test}.txt to the build directory of every module,
+     * reactor modules are mapped to their output directories
+     */
+    @Parameter(property = "exportClasspath", defaultValue = "false")
+    private boolean exportClasspath;
+
+    /**
+     * Generate every module as soon as it is resolved, while other modules are still resolving
+     */
+    @Parameter(property = "pipelined", defaultValue = "false")
+    private boolean pipelined;
+
+    @Parameter(defaultValue = "${settings.offline}", readonly = true)
+    private boolean offline;
+
+    @Parameter(defaultValue = "${settings}", readonly = true)
+    private Settings settings;
+
+    /**
+     * Backend of transitive resolution: maven2 (Maven 2 API, modules one by one) or aether
+     * (Maven Resolver of Maven 3.1+, modules in parallel with a shared cache)
+     */
+    @Parameter(property = "resolver", defaultValue = "maven2")
+    private String resolver;
+
+    /**
+     * Number of modules resolved at once by the aether resolver
+     */
+    @Parameter(property = "resolverThreads", defaultValue = "4")
+    private int resolverThreads;
+
+    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true)
+    private Object repositorySystemSession;
+
+    /**
+     * Probe remote repositories with the budgets below before resolution and after failures, and skip the ones
+     * which fail repeatedly for the rest of the run. The budgets become transfer timeouts of resolver=aether.
+     * Disabled offline.
+     */
+    @Parameter(property = "idea.repositoryHealth", defaultValue = "false")
+    private boolean repositoryHealth;
+
+    /**
+     * Connect budget of a remote repository request in milliseconds
+     */
+    @Parameter(property = "repositoryConnectTimeout", defaultValue = "10000")
+    private int repositoryConnectTimeout;
+
+    /**
+     * Read budget of a remote repository request in milliseconds
+     */
+    @Parameter(property = "repositoryReadTimeout", defaultValue = "30000")
+    private int repositoryReadTimeout;
+
+    /**
+     * Consecutive failures after which a remote repository is skipped for the rest of the run
+     */
+    @Parameter(property = "repositoryFailures", defaultValue = "3")
+    private int repositoryFailures;
+
+    /**
+     * Minutes snapshot metadata checked in a remote repository is not checked again, in this and the next runs.
+     * Repositories which check more often, "always" included, are checked less often then; 0 keeps repository policies.
+     */
+    @Parameter(property = "snapshotTtl", defaultValue = "0")
+    private int snapshotTtl;
+
+    /**
+     * Check snapshot metadata of all remote repositories regardless of snapshotTtl and update policies
+     */
+    @Parameter(property = "idea.refreshSnapshots", defaultValue = "false")
+    private boolean refreshSnapshots;
+
+    /**
+     * Directory of the workspace cache, disabled if not set. The key is a hash of all reactor poms,
+     * the plugin parameters and the plugin version, on a hit the workspace is copied from the cache
+     * without resolution and rendering.
+     */
+    @Parameter(property = "outputCache")
+    private File outputCache;
+
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
+    /**
+     * Leave out of the order entries the transitive libraries which compiled classes of a module don't reference, see idea1:unused.
+     * Declared dependencies, reactor modules, runtime dependencies and what referenced libraries depend on stay,
+     * modules without classes or with sources newer than their classes are not trimmed.
+     * Smaller indexes and compile classpaths, but reflection and service loading may need the left out libraries.
+     */
+    @Parameter(property = "idea.trimUnused", defaultValue = "false")
+    private boolean trimUnused;
+
+    /**
+     * Class lists of jars read before for idea.trimUnused, keyed by jar checksum
+     */
+    @Parameter(property = "jarIndex", defaultValue = "${project.build.directory}/idea-jar-index.gz")
+    private File jarIndex;
+
+    /**
+     * Order entries of a module: full (the whole resolved closure, compile entries exported) or direct
+     * (reactor modules the module depends on directly, and only those libraries and modules which are not
+     * visible through the exported entries of these modules with the same version and scope)
+     */
+    @Parameter(property = "idea.orderEntries", defaultValue = ORDER_ENTRIES_FULL)
+    private String orderEntries;
+
+    private static final String ORDER_ENTRIES_FULL = "full";
+    private static final String ORDER_ENTRIES_DIRECT = "direct";
+
+    private PlexusContainer container;
+
     private ArtifactHolder artifactHolder;
+    private ReactorGraph reactorGraph;
     private VelocityWorker velocityWorker;
+    private WorkspaceStage workspaceStage;
+    private FileExistenceCache fileExistenceCache;
+    private UnusedDependencyAnalyzer unusedAnalyzer;
+    private JarIndex unusedJarIndex;
+    private final Map<MavenProject, List<Artifact>> orderEntryMap = new HashMap<MavenProject, List<Artifact>>();
+    /**
+     * Project -> ids of artifacts visible through a module dependency on it
+     */
+    private final Map<MavenProject, Set<String>> exportMap = new HashMap<MavenProject, Set<String>>();
+    /**
+     * groupId:artifactId -> reactor project
+     */
+    private final Map<String, MavenProject> reactorMap = new HashMap<String, MavenProject>();
+    /**
+     * Facts of this machine the rendered files depend on, checked again before a cached workspace is restored
+     */
+    private final Map<String, String> workspaceFacts = new ConcurrentHashMap<String, String>();
     private MavenProject project;
 
+    protected static final String REPOSITORY_FACT = "repository:";
+    protected static final String FILE_FACT = "file:";
+
     // Getters
 
     public List<MavenProject> getReactorProjects() {
@@ -82,6 +301,10 @@ public abstract class IdeaPluginMojoBase extends AbstractMojo {
         return artifactHolder;
     }
 
+    protected ReactorGraph getReactorGraph() {
+        return reactorGraph;
+    }
+
     public MavenProject getProject() {
         return project;
     }
@@ -90,17 +313,98 @@ public abstract class IdeaPluginMojoBase extends AbstractMojo {
         return velocityWorker;
     }
 
+    protected WorkspaceStage getWorkspaceStage() {
+        return workspaceStage;
+    }
+
+    // Contextualizable
+
+    @Override
+    public void contextualize(Context context) throws ContextException {
+        container = (PlexusContainer) context.get(PlexusConstants.PLEXUS_KEY);
+    }
+
     // AbstractMojo
 
     @Override
     public final void execute() throws MojoExecutionException, MojoFailureException {
         try {
-            ArtifactDependencyResolver resolver = new ArtifactDependencyResolver(getLog(), artifactFactory, artifactResolver, localRepository, artifactMetadataSource);
-            artifactHolder = new ArtifactHolder(getLog(), resolver, reactorProjects);
+            if (!ORDER_ENTRIES_FULL.equals(orderEntries) && !ORDER_ENTRIES_DIRECT.equals(orderEntries))
+                throw new MojoFailureException("Unknown idea.orderEntries " + orderEntries + ", expected " + ORDER_ENTRIES_FULL + " or " + ORDER_ENTRIES_DIRECT);
+            for (MavenProject reactorProject : reactorProjects)
+                reactorMap.put(reactorProject.getGroupId() + ":" + reactorProject.getArtifactId(), reactorProject);
+            File root = Util.getExecutionRoot(reactorProjects).getBasedir();
+            // trimmed order entries depend on compiled classes, not only on the poms
+            WorkspaceCache workspaceCache = outputCache == null || trimUnused ? null : new WorkspaceCache(getLog(), outputCache, root, WorkspaceCache.computeKey(pluginVersion, reactorProjects, root, this));
+            if (workspaceCache != null && restoreWorkspace(workspaceCache))
+                return;
+            LocalRepositoryIndex index = localRepositoryIndex == null ? null : LocalRepositoryIndex.open(getLog(), new File(localRepository.getBasedir()), localRepositoryIndex);
+            ArtifactMetadataSource metadataSource = index != null && offline ? IndexedMetadataSource.wrap(artifactMetadataSource, index) : artifactMetadataSource;
+            ArtifactDependencyResolver resolver = new ArtifactDependencyResolver(getLog(), artifactFactory, artifactResolver, localRepository, metadataSource, ExclusionMatcher.compile(exclusions));
+            if (repositoryHealth && !offline)
+                resolver.setRepositoryHealth(new RepositoryHealth(getLog(), repositoryConnectTimeout, repositoryReadTimeout, repositoryFailures, settings.getActiveProxy()));
+            if (!offline)
+                resolver.setSnapshotPolicy(new SnapshotPolicy(getLog(), snapshotTtl, refreshSnapshots));
+            resolver.setResolver(this.resolver, container, repositorySystemSession, resolverThreads);
+            ReactorGraph graph = resolver.findReactorGraph(reactorProjects);
+            reactorGraph = graph;
+            List<MavenProject> projects = selectProjects(graph);
+            List<MavenProject> resolvedProjects = projects;
+            if (shardCount > 1) {
+                if (shardIndex < 0 || shardIndex >= shardCount)
+                    throw new MojoFailureException("shardIndex must be in [0, " + shardCount + "): " + shardIndex);
+                projects = ReactorGraph.partition(projects, shardCount).get(shardIndex);
+                resolvedProjects = graph.closure(projects);
+                getLog().info("");
+                getLog().info("Shard " + shardIndex + " of " + shardCount + ": " + projects.size() + " modules, " + resolvedProjects.size() + " to resolve");
+            }
             velocityWorker = new VelocityWorker();
-            for (MavenProject project : reactorProjects) {
-                this.project = project;
-                doExecute();
+            workspaceStage = new WorkspaceStage(getLog(), stagingDirectory);
+            fileExistenceCache = new FileExistenceCache(missingSourcesCache, index);
+            if (trimUnused) {
+                unusedJarIndex = new JarIndex(getLog(), jarIndex);
+                unusedAnalyzer = new UnusedDependencyAnalyzer(getLog(), unusedJarIndex, reactorProjects, Runtime.getRuntime().availableProcessors());
+            }
+            try {
+                doPrepare(projects);
+                if (pipelined) {
+                    executePipelined(resolver, resolvedProjects, projects);
+                } else {
+                    artifactHolder = new ArtifactHolder(getLog(), resolver, resolvedProjects);
+                    for (MavenProject project : projects) {
+                        this.project = project;
+                        doExecute();
+                    }
+                }
+                writeConflictReport(resolver.getConflictReport());
+                writeLatencyReport(resolver.getLatencyReport());
+                if (resolver.getRepositoryHealth() != null)
+                    resolver.getRepositoryHealth().log();
+                if (resolver.getSnapshotPolicy() != null)
+                    resolver.getSnapshotPolicy().log();
+                if (exportClasspath)
+                    exportClasspath(projects);
+                // the index covers the whole reactor only without a working set and shards
+                if (whoIndex != null && projects == reactorProjects)
+                    DependencyIndex.build(graph, artifactHolder, projects).write(whoIndex, DependencyIndex.fingerprint(reactorProjects, root, exclusions));
+                this.project = Util.getExecutionRoot(reactorProjects);
+                doExecuteWorkspace();
+                fileExistenceCache.save();
+                if (index != null)
+                    index.save();
+                if (unusedJarIndex != null)
+                    unusedJarIndex.save();
+                if (shardCount > 1) {
+                    // modules which moved to another shard must not leave their old files here for idea1:merge
+                    deleteShardOutput();
+                    IdeaMergeMojo.writeManifest(workspaceStage.stage(new File(getShardOutput(), IdeaMergeMojo.MANIFEST)), shardIndex, shardCount, projects);
+                }
+                if (workspaceCache != null)
+                    workspaceCache.store(workspaceStage.getFiles(), workspaceFacts);
+                workspaceStage.commit();
+            } finally {
+                resolver.restore();
+                workspaceStage.rollback();
             }
         } catch (MojoExecutionException e) {
             throw e;
@@ -111,12 +415,285 @@ public abstract class IdeaPluginMojoBase extends AbstractMojo {
         }
     }
 
+    /**
+     * @param workspaceCache cache
+     * @return true if the workspace was restored from the cache
+     * @throws Exception can't copy files or check facts
+     */
+    private boolean restoreWorkspace(WorkspaceCache workspaceCache) throws Exception {
+        WorkspaceStage stage = new WorkspaceStage(getLog(), stagingDirectory);
+        try {
+            if (!workspaceCache.restore(stage, this::getWorkspaceFacts)) {
+                getLog().info("");
+                getLog().info("Workspace Cache Miss: " + workspaceCache.getKey());
+                return false;
+            }
+            // the graph of reactor modules needs no resolution
+            reactorGraph = new ArtifactDependencyResolver(getLog(), artifactFactory, artifactResolver, localRepository, artifactMetadataSource, ExclusionMatcher.compile(exclusions)).findReactorGraph(reactorProjects);
+            velocityWorker = new VelocityWorker();
+            workspaceStage = stage;
+            this.project = Util.getExecutionRoot(reactorProjects);
+            doRestoreWorkspace();
+            stage.commit();
+            return true;
+        } finally {
+            stage.rollback();
+        }
+    }
+
+    /**
+     * Resolve projects in the background and generate every module as soon as it and all reactor modules
+     * it depends on, directly or transitively, are resolved
+     *
+     * @param resolver         resolver
+     * @param resolvedProjects projects to resolve
+     * @param projects         projects to generate
+     * @throws Exception error
+     */
+    private void executePipelined(ArtifactDependencyResolver resolver, List<MavenProject> resolvedProjects, List<MavenProject> projects) throws Exception {
+        artifactHolder = new ArtifactHolder(getLog(), resolvedProjects);
+        // module -> number of reactor modules in its closure, itself included, which are not resolved yet
+        Map<MavenProject, Integer> pending = new HashMap<MavenProject, Integer>();
+        // resolved module -> modules to render which wait for it
+        Map<MavenProject, List<MavenProject>> waiting = new HashMap<MavenProject, List<MavenProject>>();
+        for (MavenProject project : projects) {
+            List<MavenProject> closure = reactorGraph.closure(Collections.singletonList(project));
+            pending.put(project, closure.size());
+            for (MavenProject dependency : closure) {
+                List<MavenProject> list = waiting.get(dependency);
+                if (list == null)
+                    waiting.put(dependency, list = new ArrayList<MavenProject>());
+                list.add(project);
+            }
+        }
+        BlockingQueue<Object> queue = new LinkedBlockingQueue<Object>();
+        Object done = new Object();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> future = executor.submit(() -> {
+                try {
+                    resolver.findDependencies(resolvedProjects, (project, data) -> {
+                        artifactHolder.put(project, data);
+                        queue.add(project);
+                    });
+                    return null;
+                } finally {
+                    queue.add(done);
+                }
+            });
+            for (Object next = queue.take(); next != done; next = queue.take()) {
+                List<MavenProject> dependents = waiting.remove(next);
+                if (dependents == null)
+                    continue;
+                for (MavenProject dependent : dependents) {
+                    int count = pending.get(dependent) - 1;
+                    if (count > 0) {
+                        pending.put(dependent, count);
+                    } else {
+                        pending.remove(dependent);
+                        for (MavenProject module : reactorGraph.closure(Collections.singletonList(dependent)))
+                            if (!artifactHolder.contains(module))
+                                throw new IllegalStateException(dependent.getId() + " is generated before " + module.getId() + " is resolved");
+                        this.project = dependent;
+                        doExecute();
+                    }
+                }
+            }
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception)
+                    throw (Exception) e.getCause();
+                throw new MojoFailureException(e.getCause().getMessage(), e.getCause());
+            }
+            if (!pending.isEmpty())
+                throw new MojoFailureException("Reactor dependencies of " + pending.keySet() + " were not resolved");
+            artifactHolder.complete();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Prepare data for all modules before they are generated one by one
+     *
+     * @param projects modules to generate
+     * @throws Exception error
+     */
+    protected void doPrepare(List<MavenProject> projects) throws Exception {
+    }
+
     protected abstract void doExecute() throws Exception;
 
+    private void writeLatencyReport(LatencyReport report) throws IOException {
+        report.log(getLog());
+        if (latencyReport != null)
+            report.write(latencyReport);
+    }
+
+    /**
+     * Generate project-wide files once all modules are done, the current project is the execution root
+     *
+     * @throws Exception error
+     */
+    protected void doExecuteWorkspace() throws Exception {
+    }
+
+    /**
+     * Generate project-wide files which are not cached after the workspace is restored from the cache,
+     * the current project is the execution root
+     *
+     * @throws Exception error
+     */
+    protected void doRestoreWorkspace() throws Exception {
+    }
+
+    private List<MavenProject> selectProjects(ReactorGraph graph) throws Exception {
+        if (modules == null || modules.isEmpty())
+            return reactorProjects;
+        Set<MavenProject> selected = new HashSet<MavenProject>(graph.select(modules));
+        if (selected.isEmpty())
+            throw new MojoFailureException("No reactor modules match idea.modules=" + modules);
+        List<MavenProject> projects = graph.closure(selected);
+        getLog().info("");
+        getLog().info("Working Set: " + projects.size() + " of " + reactorProjects.size() + " modules");
+        getLog().info("");
+        for (MavenProject project : projects)
+            getLog().info((selected.contains(project) ? "  " : "R ") + project.getId());
+        return projects;
+    }
+
+    private void exportClasspath(List<MavenProject> projects) throws IOException {
+        ClasspathExport export = new ClasspathExport(localRepository, reactorProjects);
+        for (MavenProject project : projects)
+            export.write(project, artifactHolder.getClasspath(project));
+        getLog().info("");
+        getLog().info("Classpath files: " + projects.size() * ClasspathExport.SCOPES.length);
+    }
+
+    private void writeConflictReport(ConflictReport report) throws IOException {
+        if (conflictReport == null)
+            return;
+        report.write(conflictReport);
+        getLog().info("");
+        getLog().info("Conflicts: " + report.size() + " (" + conflictReport.getAbsolutePath() + ")");
+    }
+
+    /**
+     * Delete what the previous run of this shard published, the files of this run are staged and published after
+     *
+     * @throws IOException can't delete
+     */
+    private void deleteShardOutput() throws IOException {
+        Path output = getShardOutput().toPath();
+        if (!Files.isDirectory(output))
+            return;
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(output)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path path : paths)
+            Files.delete(path);
+    }
+
+    private File getShardOutput() {
+        return new File(shardDirectory, IdeaMergeMojo.SHARD_PREFIX + shardIndex);
+    }
+
+    /**
+     * @return directory to write workspace files of the current project to: its basedir or its place in the shard output
+     */
+    protected File getOutputDirectory() {
+        if (shardCount <= 1)
+            return project.getBasedir();
+        return new File(getShardOutput(), Util.getRelativePath(Util.getExecutionRoot(reactorProjects).getBasedir(), project.getBasedir()));
+    }
+
     // Velocity Bindings
 
-    public List<Artifact> getDependencies(MavenProject project) {
-        return artifactHolder.getDependencies(project);
+    public synchronized List<Artifact> getDependencies(MavenProject project) {
+        List<Artifact> entries = orderEntryMap.get(project);
+        if (entries == null) {
+            // an empty list cached for a module which is not resolved yet would stay for the whole run
+            if (!artifactHolder.contains(project))
+                throw new IllegalStateException("Dependencies of " + project.getId() + " are used before the module is resolved");
+            entries = artifactHolder.getDependencies(project);
+            if (unusedAnalyzer != null)
+                entries = trim(project, entries);
+            if (ORDER_ENTRIES_DIRECT.equals(orderEntries))
+                entries = getDirectEntries(project, entries);
+            orderEntryMap.put(project, entries);
+        }
+        return entries;
+    }
+
+    /**
+     * @return direct reactor modules, other entries only if no direct module exports them with the same version and scope
+     */
+    private List<Artifact> getDirectEntries(MavenProject project, List<Artifact> dependencies) {
+        Set<MavenProject> directModules = new HashSet<MavenProject>(reactorGraph.getDependencies(project));
+        // scope -> ids visible through direct module dependencies of this scope
+        Map<String, Set<String>> visible = new HashMap<String, Set<String>>();
+        for (Artifact artifact : dependencies) {
+            MavenProject module = reactorMap.get(artifact.getGroupId() + ":" + artifact.getArtifactId());
+            if (module == null || !directModules.contains(module))
+                continue;
+            Set<String> ids = visible.get(getScope(artifact));
+            if (ids == null)
+                visible.put(getScope(artifact), ids = new HashSet<String>());
+            ids.addAll(getExported(module));
+        }
+        List<Artifact> entries = new ArrayList<Artifact>();
+        for (Artifact artifact : dependencies) {
+            MavenProject module = reactorMap.get(artifact.getGroupId() + ":" + artifact.getArtifactId());
+            Set<String> ids = visible.get(getScope(artifact));
+            if (module != null && directModules.contains(module) || ids == null || !ids.contains(artifact.getId()))
+                entries.add(artifact);
+        }
+        if (entries.size() < dependencies.size())
+            getLog().debug("Direct order entries " + project.getId() + ": " + entries.size() + " of " + dependencies.size());
+        return entries;
+    }
+
+    /**
+     * @return ids of the compile entries of a module together with what its compile module entries export
+     */
+    private Set<String> getExported(MavenProject project) {
+        Set<String> exported = exportMap.get(project);
+        if (exported != null)
+            return exported;
+        List<Artifact> dependencies = getDependencies(project);
+        // put first, a reactor cycle ends here
+        exportMap.put(project, exported = new HashSet<String>());
+        for (Artifact artifact : dependencies) {
+            if (!Artifact.SCOPE_COMPILE.equalsIgnoreCase(getScope(artifact)))
+                continue;
+            exported.add(artifact.getId());
+            MavenProject module = reactorMap.get(artifact.getGroupId() + ":" + artifact.getArtifactId());
+            if (module != null)
+                exported.addAll(getExported(module));
+        }
+        return exported;
+    }
+
+    private List<Artifact> trim(MavenProject project, List<Artifact> dependencies) {
+        try {
+            if (!unusedAnalyzer.isUpToDate(project)) {
+                getLog().info("Trim " + project.getId() + ": skipped, sources are newer than the compiled classes");
+                return dependencies;
+            }
+            UnusedDependencyAnalyzer.Result result = unusedAnalyzer.analyze(project, dependencies);
+            if (result == null)
+                return dependencies;
+            getLog().info("Trim " + project.getId() + ": " + result.getTrimmed().size() + " of " + dependencies.size() + " dependencies");
+            return result.getTrimmed();
+        } catch (IOException e) {
+            getLog().warn("Can't trim " + project.getId() + ": " + e.getMessage());
+            return dependencies;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return dependencies;
+        }
     }
 
     public List<Artifact> getAllDependencies() {
@@ -188,6 +765,71 @@ public abstract class IdeaPluginMojoBase extends AbstractMojo {
         return path.substring(0, path.length() - 4) + "-sources.jar";
     }
 
+    public boolean hasModuleLibraryJavadocs(Artifact artifact) {
+        return existsInLocalRepository(getModuleLibraryJavadocs(artifact));
+    }
+
+    public boolean hasModuleLibrarySources(Artifact artifact) {
+        return existsInLocalRepository(getModuleLibrarySources(artifact));
+    }
+
+    private boolean existsInLocalRepository(String path) {
+        boolean exists = fileExistenceCache.exists(getLocalRepositoryFile(path));
+        addWorkspaceFact(REPOSITORY_FACT + path, String.valueOf(exists));
+        return exists;
+    }
+
+    /**
+     * Record a fact of this machine the rendered files depend on, see {@link #getWorkspaceFacts}
+     *
+     * @param name  fact name with a prefix telling how to check it
+     * @param value value the files were rendered with
+     */
+    protected void addWorkspaceFact(String name, String value) {
+        workspaceFacts.put(name, value);
+    }
+
+    /**
+     * @param names names of facts recorded with a cached workspace
+     * @return name -> current value on this machine, unknown facts are left out
+     * @throws Exception can't check
+     */
+    protected Map<String, String> getWorkspaceFacts(Set<String> names) throws Exception {
+        // answered like when rendering, with the same negative cache of missing sources
+        FileExistenceCache cache = new FileExistenceCache(missingSourcesCache, null);
+        Map<String, String> paths = new HashMap<String, String>();
+        for (String name : names) {
+            if (name.startsWith(REPOSITORY_FACT))
+                paths.put(name, getLocalRepositoryFile(name.substring(REPOSITORY_FACT.length())));
+            else if (name.startsWith(FILE_FACT))
+                paths.put(name, name.substring(FILE_FACT.length()));
+        }
+        cache.prefetch(paths.values());
+        Map<String, String> facts = new HashMap<String, String>();
+        for (Map.Entry<String, String> entry : paths.entrySet())
+            facts.put(entry.getKey(), String.valueOf(cache.exists(entry.getValue())));
+        return facts;
+    }
+
+    /**
+     * Check sources and javadoc jars of all given artifacts in parallel, so templates get cached answers
+     *
+     * @param artifacts library artifacts
+     * @throws InterruptedException interrupted
+     */
+    protected void prefetchModuleLibraryAttachments(Collection<Artifact> artifacts) throws InterruptedException {
+        List<String> paths = new ArrayList<String>(2 * artifacts.size());
+        for (Artifact artifact : artifacts) {
+            paths.add(getLocalRepositoryFile(getModuleLibrarySources(artifact)));
+            paths.add(getLocalRepositoryFile(getModuleLibraryJavadocs(artifact)));
+        }
+        fileExistenceCache.prefetch(paths);
+    }
+
+    private String getLocalRepositoryFile(String path) {
+        return new File(localRepository.getBasedir(), path).getAbsolutePath();
+    }
+
     public String getLocalRepositoryBasePath() {
         return localRepository.getBasedir();
     }
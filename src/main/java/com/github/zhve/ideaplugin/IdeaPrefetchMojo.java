@@ -0,0 +1,140 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.settings.Settings;
+
+import java.util.*;
+
+/**
+ * Download all dependencies of the reactor into the local repository in parallel, so the next idea run only reads it
+ *
+ * @since 10/19/2026
+ */
+@Mojo(name = "prefetch", aggregator = true)
+public class IdeaPrefetchMojo extends AbstractMojo {
+    @Component
+    private ArtifactFactory artifactFactory;
+
+    @Component(role = ArtifactMetadataSource.class, hint = "maven")
+    private ArtifactMetadataSource artifactMetadataSource;
+
+    @Parameter(property = "reactorProjects", required = true, readonly = true)
+    private List<MavenProject> reactorProjects;
+
+    @Parameter(property = "localRepository", required = true, readonly = true)
+    private ArtifactRepository localRepository;
+
+    @Parameter(defaultValue = "${settings}", readonly = true)
+    private Settings settings;
+
+    /**
+     * Exclusions applied to all modules in "groupId:artifactId" format, '*' wildcards are allowed
+     */
+    @Parameter(property = "exclusions")
+    private List<String> exclusions;
+
+    /**
+     * Number of threads to read poms and download files with
+     */
+    @Parameter(property = "prefetchThreads", defaultValue = "16")
+    private int prefetchThreads;
+
+    /**
+     * Max number of simultaneous downloads from one repository
+     */
+    @Parameter(property = "prefetchConnections", defaultValue = "4")
+    private int prefetchConnections;
+
+    /**
+     * Number of retries of a failed download
+     */
+    @Parameter(property = "prefetchRetries", defaultValue = "3")
+    private int prefetchRetries;
+
+    /**
+     * Download sources jars
+     */
+    @Parameter(property = "prefetchSources", defaultValue = "true")
+    private boolean prefetchSources;
+
+    /**
+     * Download javadoc jars
+     */
+    @Parameter(property = "prefetchJavadoc", defaultValue = "false")
+    private boolean prefetchJavadoc;
+
+    /**
+     * Connect budget of a remote repository request in milliseconds
+     */
+    @Parameter(property = "repositoryConnectTimeout", defaultValue = "10000")
+    private int repositoryConnectTimeout;
+
+    /**
+     * Read budget of a remote repository request in milliseconds
+     */
+    @Parameter(property = "repositoryReadTimeout", defaultValue = "30000")
+    private int repositoryReadTimeout;
+
+    /**
+     * Consecutive failures after which a remote repository is skipped for the rest of the run
+     */
+    @Parameter(property = "repositoryFailures", defaultValue = "3")
+    private int repositoryFailures;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (prefetchThreads < 1 || prefetchConnections < 1 || prefetchRetries < 0)
+            throw new MojoFailureException("prefetchThreads and prefetchConnections must be positive, prefetchRetries must not be negative");
+        RepositoryHealth health = new RepositoryHealth(getLog(), repositoryConnectTimeout, repositoryReadTimeout, repositoryFailures, settings.getActiveProxy());
+        ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(getLog(), artifactFactory, artifactMetadataSource, localRepository, prefetchThreads, prefetchConnections, prefetchRetries, health);
+        try {
+            getLog().info("");
+            getLog().info("Collect Dependencies");
+            getLog().info("");
+            Collection<Artifact> artifacts = prefetcher.collect(reactorProjects, ExclusionMatcher.compile(exclusions));
+            Map<String, ArtifactRepository> repositories = new LinkedHashMap<String, ArtifactRepository>();
+            for (MavenProject project : reactorProjects)
+                for (Object repository : project.getRemoteArtifactRepositories())
+                    if (!repositories.containsKey(((ArtifactRepository) repository).getId()))
+                        repositories.put(((ArtifactRepository) repository).getId(), (ArtifactRepository) repository);
+            getLog().info("");
+            getLog().info("Download " + artifacts.size() + " artifacts from " + repositories.keySet());
+            prefetcher.download(artifacts, new ArrayList<ArtifactRepository>(repositories.values()), prefetchSources, prefetchJavadoc);
+            health.log();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted", e);
+        } catch (Exception e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactResolver;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Analyze the reactor graph for parallel builds: build levels, critical path, max parallelism and -T/-pl recommendations.
+ * No dependencies are resolved, only the reactor modules declared in the poms are used.
+ *
+ * @since 10/19/2026
+ */
+@Mojo(name = "schedule", aggregator = true)
+public class IdeaScheduleMojo extends AbstractMojo {
+    @Component
+    private ArtifactResolver artifactResolver;
+
+    @Component
+    private ArtifactFactory artifactFactory;
+
+    @Component(role = ArtifactMetadataSource.class, hint = "maven")
+    private ArtifactMetadataSource artifactMetadataSource;
+
+    @Parameter(property = "reactorProjects", required = true, readonly = true)
+    private List<MavenProject> reactorProjects;
+
+    @Parameter(property = "localRepository", required = true, readonly = true)
+    private ArtifactRepository localRepository;
+
+    /**
+     * Past build times, lines of "groupId:artifactId=millis" (or "artifactId=millis").
+     * If not set, modules are weighted by the number of their source files.
+     */
+    @Parameter(property = "buildTimes")
+    private File buildTimes;
+
+    /**
+     * Report file
+     */
+    @Parameter(property = "scheduleReport", defaultValue = "${project.build.directory}/idea-schedule.txt")
+    private File scheduleReport;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        ArtifactDependencyResolver resolver = new ArtifactDependencyResolver(getLog(), artifactFactory, artifactResolver, localRepository, artifactMetadataSource, ExclusionMatcher.EMPTY);
+        try {
+            ReactorGraph graph = resolver.findReactorGraph(reactorProjects);
+            BuildSchedule schedule = buildTimes == null
+                    ? new BuildSchedule(graph, countSourceFiles(), "files")
+                    : new BuildSchedule(graph, readBuildTimes(), "ms");
+            schedule.log(getLog());
+            if (scheduleReport != null)
+                schedule.write(scheduleReport);
+        } catch (InvalidVersionSpecificationException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+
+    private Map<MavenProject, Long> readBuildTimes() throws IOException, MojoFailureException {
+        Map<String, Long> times = new HashMap<String, Long>();
+        for (String line : Files.readAllLines(buildTimes.toPath(), StandardCharsets.UTF_8)) {
+            int i = line.lastIndexOf('=');
+            if (line.trim().isEmpty() || line.startsWith("#"))
+                continue;
+            if (i < 0)
+                throw new MojoFailureException("Invalid line in " + buildTimes + ": " + line);
+            try {
+                times.put(line.substring(0, i).trim(), Long.parseLong(line.substring(i + 1).trim()));
+            } catch (NumberFormatException e) {
+                throw new MojoFailureException("Invalid line in " + buildTimes + ": " + line);
+            }
+        }
+        // modules without a time get the average
+        long total = 0;
+        for (Long time : times.values())
+            total += time;
+        long average = times.isEmpty() ? 1 : total / times.size();
+        Map<MavenProject, Long> weights = new HashMap<MavenProject, Long>();
+        for (MavenProject project : reactorProjects) {
+            Long time = times.get(project.getGroupId() + ":" + project.getArtifactId());
+            if (time == null)
+                time = times.get(project.getArtifactId());
+            if (time == null)
+                getLog().warn("No build time for " + project.getId() + ", using average " + average + " ms");
+            weights.put(project, time == null ? average : time);
+        }
+        return weights;
+    }
+
+    private Map<MavenProject, Long> countSourceFiles() {
+        Map<MavenProject, Long> weights = new ConcurrentHashMap<MavenProject, Long>();
+        reactorProjects.parallelStream().forEach(project -> {
+            long count = 0;
+            @SuppressWarnings("unchecked")
+            List<String> compileRoots = project.getCompileSourceRoots();
+            @SuppressWarnings("unchecked")
+            List<String> testRoots = project.getTestCompileSourceRoots();
+            List<String> roots = new ArrayList<String>(compileRoots);
+            roots.addAll(testRoots);
+            for (String root : roots)
+                count += countFiles(new File(root));
+            weights.put(project, count);
+        });
+        return weights;
+    }
+
+    private long countFiles(File root) {
+        if (!root.isDirectory())
+            return 0;
+        try (Stream<Path> walk = Files.walk(root.toPath())) {
+            return walk.filter(Files::isRegularFile).count();
+        } catch (IOException e) {
+            getLog().warn("Can't count source files in " + root + ": " + e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactResolver;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.context.Context;
+import org.codehaus.plexus.context.ContextException;
+import org.codehaus.plexus.personality.plexus.lifecycle.phase.Contextualizable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Dependencies of every module which its compiled classes don't reference, and referenced ones which are not declared.
+ * Run it after the reactor is compiled, modules without classes are skipped.
+ *
+ * @since 10/19/2026
+ */
+@Mojo(name = "unused", aggregator = true)
+public class IdeaUnusedMojo extends AbstractMojo implements Contextualizable {
+    @Component
+    private ArtifactResolver artifactResolver;
+
+    @Component
+    private ArtifactFactory artifactFactory;
+
+    @Component(role = ArtifactMetadataSource.class, hint = "maven")
+    private ArtifactMetadataSource artifactMetadataSource;
+
+    @Parameter(property = "reactorProjects", required = true, readonly = true)
+    private List<MavenProject> reactorProjects;
+
+    @Parameter(property = "localRepository", required = true, readonly = true)
+    private ArtifactRepository localRepository;
+
+    /**
+     * Exclusions applied to all modules in "groupId:artifactId" format, '*' wildcards are allowed
+     */
+    @Parameter(property = "exclusions")
+    private List<String> exclusions;
+
+    /**
+     * Backend of transitive resolution: maven2 or aether
+     */
+    @Parameter(property = "resolver", defaultValue = "maven2")
+    private String resolver;
+
+    /**
+     * Number of modules resolved at once by the aether resolver
+     */
+    @Parameter(property = "resolverThreads", defaultValue = "4")
+    private int resolverThreads;
+
+    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true)
+    private Object repositorySystemSession;
+
+    /**
+     * Report of unused declared, used undeclared and unused transitive dependencies per module
+     */
+    @Parameter(property = "unusedReport", defaultValue = "${project.build.directory}/idea-unused.txt")
+    private File unusedReport;
+
+    /**
+     * Class lists of jars read before, keyed by jar checksum
+     */
+    @Parameter(property = "jarIndex", defaultValue = "${project.build.directory}/idea-jar-index.gz")
+    private File jarIndex;
+
+    /**
+     * Number of jars and class files read at once
+     */
+    @Parameter(property = "jarIndexThreads", defaultValue = "8")
+    private int jarIndexThreads;
+
+    private PlexusContainer container;
+
+    // Contextualizable
+
+    @Override
+    public void contextualize(Context context) throws ContextException {
+        container = (PlexusContainer) context.get(PlexusConstants.PLEXUS_KEY);
+    }
+
+    // AbstractMojo
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        ArtifactDependencyResolver resolver = new ArtifactDependencyResolver(getLog(), artifactFactory, artifactResolver, localRepository, artifactMetadataSource, ExclusionMatcher.compile(exclusions));
+        resolver.setResolver(this.resolver, container, repositorySystemSession, resolverThreads);
+        ArtifactHolder artifactHolder = new ArtifactHolder(getLog(), resolver, reactorProjects);
+        try {
+            long start = System.currentTimeMillis();
+            JarIndex index = new JarIndex(getLog(), jarIndex);
+            UnusedDependencyAnalyzer analyzer = new UnusedDependencyAnalyzer(getLog(), index, reactorProjects, jarIndexThreads);
+            Map<String, UnusedDependencyAnalyzer.Result> results = new LinkedHashMap<String, UnusedDependencyAnalyzer.Result>();
+            int skipped = 0;
+            for (MavenProject project : reactorProjects) {
+                UnusedDependencyAnalyzer.Result result = analyzer.analyze(project, artifactHolder.getDependencies(project));
+                if (result == null)
+                    skipped++;
+                else
+                    results.put(project.getId(), result);
+            }
+            index.save();
+            if (unusedReport != null)
+                UnusedDependencyAnalyzer.write(unusedReport, results);
+
+            getLog().info("");
+            getLog().info("Unused Dependencies (" + results.size() + " modules analyzed, " + skipped + " without classes, " + (System.currentTimeMillis() - start) + " ms)");
+            getLog().info("");
+            for (Map.Entry<String, UnusedDependencyAnalyzer.Result> entry : results.entrySet()) {
+                UnusedDependencyAnalyzer.Result result = entry.getValue();
+                getLog().info("  " + entry.getKey() + ": " + result.getUnusedDeclared().size() + " unused declared, "
+                        + result.getUsedUndeclared().size() + " used undeclared, " + result.getUnusedTransitive().size() + " unused transitive");
+            }
+            if (unusedReport != null && !results.isEmpty())
+                getLog().info("  see " + unusedReport);
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+}
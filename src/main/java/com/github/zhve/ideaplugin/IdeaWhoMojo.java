@@ -0,0 +1,116 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactResolver;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Which modules get an artifact, directly or transitively, and through which path.
+ * Answered from the index written by idea1:idea, the reactor is resolved only if the index is missing or stale.
+ *
+ * @since 10/19/2026
+ */
+@Mojo(name = "who", aggregator = true)
+public class IdeaWhoMojo extends AbstractMojo {
+    @Component
+    private ArtifactResolver artifactResolver;
+
+    @Component
+    private ArtifactFactory artifactFactory;
+
+    @Component(role = ArtifactMetadataSource.class, hint = "maven")
+    private ArtifactMetadataSource artifactMetadataSource;
+
+    @Parameter(property = "reactorProjects", required = true, readonly = true)
+    private List<MavenProject> reactorProjects;
+
+    @Parameter(property = "localRepository", required = true, readonly = true)
+    private ArtifactRepository localRepository;
+
+    /**
+     * Artifact to look for: artifactId or groupId:artifactId, '*' wildcards are allowed
+     */
+    @Parameter(property = "idea.who", required = true)
+    private String who;
+
+    /**
+     * Exclusions applied to all modules in "groupId:artifactId" format, '*' wildcards are allowed
+     */
+    @Parameter(property = "exclusions")
+    private List<String> exclusions;
+
+    /**
+     * Reverse dependency index, written by idea1:idea
+     */
+    @Parameter(property = "whoIndex", defaultValue = "${project.build.directory}/idea-who.txt")
+    private File whoIndex;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        try {
+            long start = System.currentTimeMillis();
+            File root = Util.getExecutionRoot(reactorProjects).getBasedir();
+            String fingerprint = DependencyIndex.fingerprint(reactorProjects, root, exclusions);
+            DependencyIndex index = DependencyIndex.read(whoIndex, fingerprint);
+            if (index == null) {
+                getLog().info("Index " + whoIndex + " is missing or stale, resolve the reactor");
+                ArtifactDependencyResolver resolver = new ArtifactDependencyResolver(getLog(), artifactFactory, artifactResolver, localRepository, artifactMetadataSource, ExclusionMatcher.compile(exclusions));
+                ReactorGraph graph = resolver.findReactorGraph(reactorProjects);
+                ArtifactHolder artifactHolder = new ArtifactHolder(getLog(), resolver, reactorProjects);
+                index = DependencyIndex.build(graph, artifactHolder, reactorProjects);
+                index.write(whoIndex, fingerprint);
+                start = System.currentTimeMillis();
+            }
+            Map<String, List<String[]>> result = index.query(who);
+            getLog().info("");
+            getLog().info("Who uses " + who + ": " + result.size() + " artifacts (" + (System.currentTimeMillis() - start) + " ms, " + index.size() + " index entries)");
+            for (Map.Entry<String, List<String[]>> entry : result.entrySet()) {
+                getLog().info("");
+                getLog().info(entry.getKey() + ": " + entry.getValue().size() + " modules");
+                for (String[] module : entry.getValue()) {
+                    // module, version:scope, path
+                    int depth = DependencyIndex.getDepth(module[2]);
+                    getLog().info("  " + module[0] + " (" + module[1] + ", " + (depth == 1 ? "direct" : "depth " + depth) + ")");
+                    getLog().info("    " + module[2]);
+                }
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (InvalidVersionSpecificationException e) {
+            throw new MojoFailureException(e.getMessage(), e);
+        }
+    }
+}
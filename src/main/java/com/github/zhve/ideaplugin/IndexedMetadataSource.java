@@ -0,0 +1,75 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers available versions from the {@link LocalRepositoryIndex} instead of reading maven-metadata files.
+ * Only used offline, when the local repository is the only source of versions anyway.
+ *
+ * @since 10/19/2026
+ */
+class IndexedMetadataSource implements InvocationHandler {
+    private final ArtifactMetadataSource delegate;
+    private final LocalRepositoryIndex index;
+
+    private IndexedMetadataSource(ArtifactMetadataSource delegate, LocalRepositoryIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    public static ArtifactMetadataSource wrap(ArtifactMetadataSource delegate, LocalRepositoryIndex index) {
+        return (ArtifactMetadataSource) Proxy.newProxyInstance(delegate.getClass().getClassLoader(),
+                Util.getAllInterfaces(delegate.getClass()),
+                new IndexedMetadataSource(delegate, index));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if ("retrieveAvailableVersions".equals(method.getName()) && args != null && args.length > 0) {
+            Artifact artifact = TimedMetadataSource.getArtifact(args[0]);
+            if (artifact != null) {
+                List<String> versions = index.getVersions(artifact.getGroupId(), artifact.getArtifactId());
+                if (!versions.isEmpty()) {
+                    List<ArtifactVersion> list = new ArrayList<ArtifactVersion>(versions.size());
+                    for (String version : versions)
+                        list.add(new DefaultArtifactVersion(version));
+                    return list;
+                }
+            }
+        }
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Classes of library jars. Only the central directory at the end of a jar is read, entry data is never touched.
+ * Jars are read in parallel and their class lists are kept in a cache file keyed by the checksum
+ * the repository stores next to a jar (*.jar.sha1), or by size and modification time when there is none.
+ *
+ * @since 10/19/2026
+ */
+class JarIndex {
+    private static final int CACHE_VERSION = 1;
+    private static final int END_SIZE = 22;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final byte[] CLASS_SUFFIX = ".class".getBytes(StandardCharsets.US_ASCII);
+
+    private final Log log;
+    private final File cacheFile;
+
+    /**
+     * Checksum -> class names
+     */
+    private final ConcurrentMap<String, String[]> cache = new ConcurrentHashMap<String, String[]>();
+    private volatile boolean changed;
+
+    public JarIndex(Log log, File cacheFile) {
+        this.log = log;
+        this.cacheFile = cacheFile;
+        if (cacheFile != null && cacheFile.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(cacheFile))))) {
+                if (in.readInt() == CACHE_VERSION) {
+                    for (int i = in.readInt(); i > 0; i--) {
+                        String key = in.readUTF();
+                        String[] classes = new String[in.readInt()];
+                        for (int j = 0; j < classes.length; j++)
+                            classes[j] = in.readUTF();
+                        cache.put(key, classes);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Can't read jar index " + cacheFile + ": " + e.getMessage());
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Read class lists of all jars in parallel, cached jars are not opened
+     *
+     * @param jars    jar files
+     * @param threads number of jars read at once
+     * @return jar -> class names in internal form ("java/lang/Object"), jars which can't be read are logged and skipped
+     * @throws InterruptedException interrupted
+     */
+    public Map<File, String[]> index(Collection<File> jars, int threads) throws InterruptedException {
+        Map<File, String[]> result = new ConcurrentHashMap<File, String[]>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(jars.size());
+            for (File jar : jars) {
+                tasks.add(() -> {
+                    try {
+                        result.put(jar, getClasses(jar));
+                    } catch (IOException e) {
+                        log.warn("Can't read " + jar + ": " + e.getMessage());
+                    }
+                    return null;
+                });
+            }
+            executor.invokeAll(tasks);
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private String[] getClasses(File jar) throws IOException {
+        String key = getChecksum(jar);
+        String[] classes = cache.get(key);
+        if (classes == null) {
+            classes = readClasses(jar);
+            cache.put(key, classes);
+            changed = true;
+        }
+        return classes;
+    }
+
+    private static String getChecksum(File jar) throws IOException {
+        File sha1 = new File(jar.getPath() + ".sha1");
+        if (sha1.isFile()) {
+            String value = new String(Files.readAllBytes(sha1.toPath()), StandardCharsets.US_ASCII).trim();
+            int i = value.indexOf(' ');
+            if (i > 0)
+                value = value.substring(0, i);
+            if (!value.isEmpty())
+                return "sha1:" + value.toLowerCase(Locale.ROOT);
+        }
+        return "file:" + jar.getAbsolutePath() + ":" + jar.length() + ":" + jar.lastModified();
+    }
+
+    /**
+     * @param jar jar file
+     * @return sorted class names in internal form, module-info and META-INF (versioned classes included) are skipped
+     * @throws IOException not a zip file
+     */
+    static String[] readClasses(File jar) throws IOException {
+        try (FileChannel channel = FileChannel.open(jar.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < END_SIZE)
+                throw new ZipException("Too short for a zip file");
+            // the end record is followed by a comment of up to 64K
+            int tailSize = (int) Math.min(size, END_SIZE + 0xFFFF);
+            long tailPosition = size - tailSize;
+            ByteBuffer tail = read(channel, tailPosition, tailSize);
+            int end = -1;
+            for (int i = tailSize - END_SIZE; i >= 0; i--) {
+                if (tail.getInt(i) == END_SIGNATURE) {
+                    end = i;
+                    break;
+                }
+            }
+            if (end < 0)
+                throw new ZipException("No end of central directory");
+            long endPosition = tailPosition + end;
+            long centralSize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+            if (centralSize == 0xFFFFFFFFL || (tail.getShort(end + 10) & 0xFFFF) == 0xFFFF) {
+                // zip64: the locator right before the end record points to the zip64 end record
+                if (endPosition < 20)
+                    throw new ZipException("No zip64 end locator");
+                ByteBuffer locator = read(channel, endPosition - 20, 20);
+                if (locator.getInt(0) != ZIP64_LOCATOR_SIGNATURE)
+                    throw new ZipException("No zip64 end locator");
+                endPosition = locator.getLong(8);
+                ByteBuffer zip64End = read(channel, endPosition, 56);
+                if (zip64End.getInt(0) != ZIP64_END_SIGNATURE)
+                    throw new ZipException("No zip64 end of central directory");
+                centralSize = zip64End.getLong(40);
+            }
+            // measured back from the end record, so data prepended to the archive doesn't matter
+            long centralPosition = endPosition - centralSize;
+            if (centralPosition < 0 || centralSize > Integer.MAX_VALUE)
+                throw new ZipException("Invalid central directory");
+            return parseCentralDirectory(read(channel, centralPosition, (int) centralSize));
+        }
+    }
+
+    private static String[] parseCentralDirectory(ByteBuffer central) throws ZipException {
+        List<String> classes = new ArrayList<String>();
+        int limit = central.limit();
+        for (int p = 0; p + CENTRAL_HEADER_SIZE <= limit; ) {
+            if (central.getInt(p) != CENTRAL_SIGNATURE)
+                throw new ZipException("Invalid central directory entry at " + p);
+            int nameLength = central.getShort(p + 28) & 0xFFFF;
+            int extraLength = central.getShort(p + 30) & 0xFFFF;
+            int commentLength = central.getShort(p + 32) & 0xFFFF;
+            int name = p + CENTRAL_HEADER_SIZE;
+            if (name + nameLength > limit)
+                throw new ZipException("Truncated central directory");
+            if (isClass(central, name, nameLength)) {
+                byte[] bytes = new byte[nameLength - CLASS_SUFFIX.length];
+                for (int i = 0; i < bytes.length; i++)
+                    bytes[i] = central.get(name + i);
+                String className = new String(bytes, StandardCharsets.UTF_8);
+                if (!className.startsWith("META-INF/") && !className.equals("module-info"))
+                    classes.add(className);
+            }
+            p = name + nameLength + extraLength + commentLength;
+        }
+        String[] result = classes.toArray(new String[classes.size()]);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static boolean isClass(ByteBuffer buffer, int name, int nameLength) {
+        if (nameLength <= CLASS_SUFFIX.length)
+            return false;
+        int suffix = name + nameLength - CLASS_SUFFIX.length;
+        for (int i = 0; i < CLASS_SUFFIX.length; i++)
+            if (buffer.get(suffix + i) != CLASS_SUFFIX[i])
+                return false;
+        return true;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new EOFException("Unexpected end of file");
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Write the cache file if new jars were read, a failure is only logged
+     */
+    public void save() {
+        if (cacheFile == null || !changed)
+            return;
+        File tmp = new File(cacheFile.getPath() + ".tmp");
+        try {
+            Files.createDirectories(cacheFile.getAbsoluteFile().getParentFile().toPath());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tmp))))) {
+                Map<String, String[]> entries = new TreeMap<String, String[]>(cache);
+                out.writeInt(CACHE_VERSION);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, String[]> entry : entries.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    for (String className : entry.getValue())
+                        out.writeUTF(className);
+                }
+            }
+            Files.move(tmp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Can't write jar index " + cacheFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param className class name in internal form
+     * @return package name with dots, empty for the default package
+     */
+    static String getPackage(String className) {
+        int i = className.lastIndexOf('/');
+        return i < 0 ? "" : className.substring(0, i).replace('/', '.');
+    }
+}
@@ -0,0 +1,282 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.apache.maven.artifact.Artifact;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Java Flight Recorder events of the plugin, category "Maven / IDEA Plugin".
+ * Factories begin an event and return null on JVMs without jdk.jfr, so event classes are never loaded there.
+ * Counts which cost I/O are only taken when the event is going to be committed, so with recording off
+ * an event is an allocation and an enabled check.
+ *
+ * @since 10/19/2026
+ */
+final class JfrEvents {
+    private static final boolean AVAILABLE = isAvailable();
+
+    private JfrEvents() {
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, JfrEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    static ModuleResolution moduleResolution(String module, String backend) {
+        if (!AVAILABLE)
+            return null;
+        ModuleResolution event = new ModuleResolution();
+        event.begin();
+        event.module = module;
+        event.backend = backend;
+        return event;
+    }
+
+    static ReactorClosure reactorClosure(int rootModules) {
+        if (!AVAILABLE)
+            return null;
+        ReactorClosure event = new ReactorClosure();
+        event.begin();
+        event.rootModules = rootModules;
+        return event;
+    }
+
+    static MetadataRetrieval metadataRetrieval(String artifact, String operation) {
+        if (!AVAILABLE)
+            return null;
+        MetadataRetrieval event = new MetadataRetrieval();
+        event.begin();
+        event.artifact = artifact;
+        event.operation = operation;
+        return event;
+    }
+
+    static TemplateMerge templateMerge(String module, String template, File file) {
+        if (!AVAILABLE)
+            return null;
+        TemplateMerge event = new TemplateMerge();
+        event.begin();
+        event.module = module;
+        event.template = template;
+        event.file = file.getPath();
+        return event;
+    }
+
+    static SourceScan sourceScan(String module, String directory) {
+        if (!AVAILABLE)
+            return null;
+        SourceScan event = new SourceScan();
+        event.begin();
+        event.module = module;
+        event.directory = directory;
+        return event;
+    }
+
+    static Deletion deletion(String module) {
+        if (!AVAILABLE)
+            return null;
+        Deletion event = new Deletion();
+        event.begin();
+        event.module = module;
+        return event;
+    }
+
+    // Events
+
+    @Name("com.github.zhve.ideaplugin.ModuleResolution")
+    @Label("Module Resolution")
+    @Category({"Maven", "IDEA Plugin"})
+    @Description("Transitive resolution of remote dependencies of one module")
+    static class ModuleResolution extends Event {
+        @Label("Module")
+        String module;
+        @Label("Backend")
+        String backend;
+        @Label("Remote Artifacts")
+        int remoteArtifacts;
+        @Label("Reactor Artifacts")
+        int reactorArtifacts;
+        @Label("Artifact Bytes")
+        @DataAmount
+        long artifactBytes;
+        @Label("Failed")
+        boolean failed;
+
+        void end(Collection<Artifact> remote, int reactor, boolean failed) {
+            end();
+            if (!shouldCommit())
+                return;
+            remoteArtifacts = remote.size();
+            reactorArtifacts = reactor;
+            for (Artifact artifact : remote)
+                if (artifact.getFile() != null)
+                    artifactBytes += artifact.getFile().length();
+            this.failed = failed;
+            commit();
+        }
+    }
+
+    @Name("com.github.zhve.ideaplugin.ReactorClosure")
+    @Label("Reactor Closure")
+    @Category({"Maven", "IDEA Plugin"})
+    @Description("Selected modules together with all their reactor dependencies")
+    static class ReactorClosure extends Event {
+        @Label("Root Modules")
+        int rootModules;
+        @Label("Closure Modules")
+        int closureModules;
+
+        void end(int closure) {
+            end();
+            if (!shouldCommit())
+                return;
+            closureModules = closure;
+            commit();
+        }
+    }
+
+    @Name("com.github.zhve.ideaplugin.MetadataRetrieval")
+    @Label("Metadata Retrieval")
+    @Category({"Maven", "IDEA Plugin"})
+    @Description("Pom or version metadata read through the artifact metadata source")
+    static class MetadataRetrieval extends Event {
+        @Label("Artifact")
+        String artifact;
+        @Label("Operation")
+        String operation;
+        @Label("Origin")
+        @Description("Repository the pom was finally served from, not the ones tried before")
+        String origin;
+        @Label("Artifacts")
+        int artifacts;
+        @Label("Failed")
+        boolean failed;
+
+        void end(String origin, int artifacts, boolean failed) {
+            end();
+            if (!shouldCommit())
+                return;
+            this.origin = origin;
+            this.artifacts = artifacts;
+            this.failed = failed;
+            commit();
+        }
+    }
+
+    @Name("com.github.zhve.ideaplugin.TemplateMerge")
+    @Label("Template Merge")
+    @Category({"Maven", "IDEA Plugin"})
+    @Description("Velocity template rendered to a staged workspace file")
+    static class TemplateMerge extends Event {
+        @Label("Module")
+        String module;
+        @Label("Template")
+        String template;
+        @Label("File")
+        String file;
+        @Label("Artifacts")
+        int artifacts;
+        @Label("Bytes Written")
+        @DataAmount
+        long bytes;
+
+        void end(int artifacts, File staged) {
+            end();
+            if (!shouldCommit())
+                return;
+            this.artifacts = artifacts;
+            bytes = staged.length();
+            commit();
+        }
+    }
+
+    @Name("com.github.zhve.ideaplugin.SourceScan")
+    @Label("Source Scan")
+    @Category({"Maven", "IDEA Plugin"})
+    @Description("Walk over a source directory of a module")
+    static class SourceScan extends Event {
+        @Label("Module")
+        String module;
+        @Label("Directory")
+        String directory;
+        @Label("Files")
+        int files;
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        void end(Collection<Path> files) {
+            end();
+            if (!shouldCommit())
+                return;
+            this.files = files.size();
+            for (Path file : files) {
+                try {
+                    bytes += Files.size(file);
+                } catch (IOException e) {
+                    // deleted meanwhile
+                }
+            }
+            commit();
+        }
+    }
+
+    @Name("com.github.zhve.ideaplugin.Deletion")
+    @Label("Workspace Deletion")
+    @Category({"Maven", "IDEA Plugin"})
+    @Description("Workspace files of a module deleted by idea1:clean")
+    static class Deletion extends Event {
+        @Label("Module")
+        String module;
+        @Label("Files")
+        long files;
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        void end(long files, long bytes) {
+            end();
+            if (!shouldCommit())
+                return;
+            this.files = files;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.*;
+
+/**
+ * Latency of metadata retrieval per artifact and per origin, and of transitive resolution per module. The origin is the
+ * repository a pom was finally served from; the whole retrieval is charged to it, including the time spent on
+ * repositories tried before, so it shows where metadata comes from rather than which repository is slow.
+ *
+ * @since 10/19/2026
+ */
+class LatencyReport {
+    private static final long[] BUCKETS = {10, 50, 100, 500, 1000, 5000};
+    private static final int TOP = 10;
+
+    private final Stats artifacts = new Stats("artifacts");
+    private final Stats modules = new Stats("modules");
+    private final Map<String, Stats> origins = new TreeMap<String, Stats>();
+
+    public synchronized void recordArtifact(String id, String origin, long millis, boolean failed) {
+        artifacts.add(new Sample(id, origin, millis, failed));
+        Stats stats = origins.get(origin);
+        if (stats == null)
+            origins.put(origin, stats = new Stats(origin));
+        stats.add(new Sample(id, origin, millis, failed));
+    }
+
+    public synchronized void recordModule(String id, long millis, boolean failed) {
+        modules.add(new Sample(id, null, millis, failed));
+    }
+
+    public synchronized void log(Log log) {
+        log.info("");
+        log.info("Resolution Latency");
+        log.info("");
+        modules.log(log);
+        artifacts.log(log);
+        for (Stats stats : origins.values())
+            log.info("  origin " + stats.name + ": " + stats.summary());
+    }
+
+    public synchronized void write(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Can't create directory " + parent);
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"))) {
+            writer.println("{");
+            writer.println("  \"modules\": " + modules.toJson("  ") + ",");
+            writer.println("  \"artifacts\": " + artifacts.toJson("  ") + ",");
+            writer.println("  \"origins\": [");
+            int i = 0;
+            for (Stats stats : origins.values())
+                writer.println("    " + stats.toJson("    ") + (++i < origins.size() ? "," : ""));
+            writer.println("  ]");
+            writer.println("}");
+        }
+    }
+
+    // Classes
+
+    private static class Sample {
+        private final String id;
+        private final String origin;
+        private final long millis;
+        private final boolean failed;
+
+        private Sample(String id, String origin, long millis, boolean failed) {
+            this.id = id;
+            this.origin = origin;
+            this.millis = millis;
+            this.failed = failed;
+        }
+
+        private String toJson() {
+            return "{\"id\": \"" + Util.escapeJson(id) + "\", "
+                    + (origin == null ? "" : "\"origin\": \"" + Util.escapeJson(origin) + "\", ")
+                    + "\"millis\": " + millis + ", \"failed\": " + failed + "}";
+        }
+    }
+
+    private static class Stats {
+        private final String name;
+        private final long[] histogram = new long[BUCKETS.length + 1];
+        private final PriorityQueue<Sample> slowest = new PriorityQueue<Sample>(TOP + 1, (o1, o2) -> Long.compare(o1.millis, o2.millis));
+        private long count;
+        private long failures;
+        private long totalMillis;
+        private long maxMillis;
+
+        private Stats(String name) {
+            this.name = name;
+        }
+
+        private void add(Sample sample) {
+            int i = 0;
+            while (i < BUCKETS.length && sample.millis >= BUCKETS[i])
+                i++;
+            histogram[i]++;
+            count++;
+            totalMillis += sample.millis;
+            maxMillis = Math.max(maxMillis, sample.millis);
+            if (sample.failed)
+                failures++;
+            slowest.add(sample);
+            if (slowest.size() > TOP)
+                slowest.poll();
+        }
+
+        private List<Sample> getSlowest() {
+            List<Sample> list = new ArrayList<Sample>(slowest);
+            Collections.sort(list, (o1, o2) -> Long.compare(o2.millis, o1.millis));
+            return list;
+        }
+
+        private static String bucketName(int i) {
+            return i < BUCKETS.length ? "<" + BUCKETS[i] + "ms" : ">=" + BUCKETS[BUCKETS.length - 1] + "ms";
+        }
+
+        private String summary() {
+            return count + " calls, " + failures + " failed, total " + totalMillis + " ms, max " + maxMillis + " ms";
+        }
+
+        private void log(Log log) {
+            log.info("  " + name + ": " + summary());
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < histogram.length; i++)
+                sb.append(' ').append(bucketName(i)).append('=').append(histogram[i]);
+            log.info("   " + sb);
+            for (Sample sample : getSlowest())
+                log.info("    " + sample.millis + " ms " + sample.id + (sample.origin == null ? "" : " (" + sample.origin + ")") + (sample.failed ? " FAILED" : ""));
+        }
+
+        private String toJson(String indent) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("{\"name\": \"").append(Util.escapeJson(name)).append("\", \"count\": ").append(count)
+                    .append(", \"failures\": ").append(failures).append(", \"totalMillis\": ").append(totalMillis)
+                    .append(", \"maxMillis\": ").append(maxMillis).append(", \"histogram\": {");
+            for (int i = 0; i < histogram.length; i++)
+                sb.append(i == 0 ? "" : ", ").append('"').append(bucketName(i)).append("\": ").append(histogram[i]);
+            sb.append("},\n").append(indent).append("  \"slowest\": [");
+            List<Sample> list = getSlowest();
+            for (int i = 0; i < list.size(); i++)
+                sb.append(i == 0 ? "\n" : ",\n").append(indent).append("    ").append(list.get(i).toJson());
+            sb.append(list.isEmpty() ? "" : "\n" + indent + "  ").append("]}");
+            return sb.toString();
+        }
+    }
+}
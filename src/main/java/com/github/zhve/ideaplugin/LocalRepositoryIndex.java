@@ -0,0 +1,259 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Index of the local repository: directories with their modification time, files and subdirectories.
+ * It is kept in a compact binary file which is read in one pass on load. A directory is checked only when
+ * it is looked up, at most once per run, and listed again only if its modification time changed,
+ * so the repository is never walked. Versions of groupId:artifactId are the subdirectories
+ * of the artifact directory which contain a pom.
+ *
+ * @since 10/19/2026
+ */
+class LocalRepositoryIndex {
+    private static final int MAGIC = 0x49445852;
+    private static final int VERSION = 1;
+
+    private final Log log;
+    private final File basedir;
+    private final File indexFile;
+
+    /**
+     * Path relative to basedir with '/' separators -> directory
+     */
+    private final ConcurrentMap<String, Dir> dirs;
+
+    /**
+     * Path -> directory checked against the repository in this run, empty if it doesn't exist
+     */
+    private final ConcurrentMap<String, Optional<Dir>> checked = new ConcurrentHashMap<String, Optional<Dir>>();
+    private final AtomicInteger listed = new AtomicInteger();
+    private volatile boolean changed;
+
+    private LocalRepositoryIndex(Log log, File basedir, File indexFile, ConcurrentMap<String, Dir> dirs) {
+        this.log = log;
+        this.basedir = basedir;
+        this.indexFile = indexFile;
+        this.dirs = dirs;
+    }
+
+    /**
+     * Load the index, directories are brought up to date with the repository when they are looked up
+     *
+     * @param log       log
+     * @param basedir   local repository
+     * @param indexFile index file, created by {@link #save()} if missing
+     * @return index
+     * @throws IOException error
+     */
+    public static LocalRepositoryIndex open(Log log, File basedir, File indexFile) throws IOException {
+        long start = System.currentTimeMillis();
+        ConcurrentMap<String, Dir> dirs = new ConcurrentHashMap<String, Dir>(indexFile.isFile() ? read(indexFile) : Collections.<String, Dir>emptyMap());
+        log.info("Local repository index: " + dirs.size() + " directories, " + (System.currentTimeMillis() - start) + " ms");
+        return new LocalRepositoryIndex(log, basedir, indexFile, dirs);
+    }
+
+    /**
+     * @param path path relative to basedir
+     * @return up to date directory, null if it doesn't exist
+     */
+    private Dir getDir(String path) {
+        return checked.computeIfAbsent(path, this::check).orElse(null);
+    }
+
+    private Optional<Dir> check(String path) {
+        Dir entry = dirs.get(path);
+        File dir = path.isEmpty() ? basedir : new File(basedir, path);
+        long lastModified = dir.lastModified();
+        if (lastModified == 0L) {
+            if (entry != null) {
+                dirs.remove(path);
+                changed = true;
+            }
+            return Optional.empty();
+        }
+        if (entry == null || entry.lastModified != lastModified) {
+            entry = list(dir, lastModified);
+            dirs.put(path, entry);
+            listed.incrementAndGet();
+            changed = true;
+        }
+        return Optional.of(entry);
+    }
+
+    private static Dir list(File dir, long lastModified) {
+        List<String> files = new ArrayList<String>();
+        List<String> subdirs = new ArrayList<String>();
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.getName().startsWith("."))
+                    continue;
+                if (child.isDirectory())
+                    subdirs.add(child.getName());
+                else
+                    files.add(child.getName());
+            }
+        }
+        return new Dir(lastModified, files.toArray(new String[files.size()]), subdirs.toArray(new String[subdirs.size()]));
+    }
+
+    /**
+     * @param file any file
+     * @return whether the file exists, null if the file is outside the repository
+     */
+    public Boolean exists(File file) {
+        String path = Util.getRelativePath(basedir, file).replace(File.separatorChar, '/');
+        if (path.startsWith(".."))
+            return null;
+        int i = path.lastIndexOf('/');
+        Dir dir = getDir(i < 0 ? "" : path.substring(0, i));
+        return dir != null && dir.hasFile(path.substring(i + 1));
+    }
+
+    /**
+     * @param groupId    group id
+     * @param artifactId artifact id
+     * @return versions which have a pom in the repository
+     */
+    public List<String> getVersions(String groupId, String artifactId) {
+        String path = groupId.replace('.', '/') + "/" + artifactId;
+        Dir dir = getDir(path);
+        if (dir == null)
+            return Collections.emptyList();
+        List<String> versions = new ArrayList<String>();
+        for (String version : dir.dirs) {
+            Dir versionDir = getDir(path + "/" + version);
+            if (versionDir != null && versionDir.hasFile(artifactId + "-" + version + ".pom"))
+                versions.add(version);
+        }
+        return versions;
+    }
+
+    /**
+     * Write the index file if a directory was listed or dropped, a failure is only logged
+     */
+    public void save() {
+        log.info("Local repository index: " + checked.size() + " directories checked, " + listed.get() + " listed");
+        if (!changed)
+            return;
+        try {
+            write(indexFile, dirs);
+        } catch (IOException e) {
+            // next run will try again
+            log.warn("Can't save local repository index " + indexFile + ": " + e.getMessage());
+        }
+    }
+
+    // Persistence
+
+    private static Map<String, Dir> read(File indexFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                return Collections.emptyMap();
+            int count = in.readInt();
+            Map<String, Dir> dirs = new HashMap<String, Dir>(Math.max(0, Math.min(count, 1 << 20)) * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                String path = readString(in);
+                long lastModified = in.readLong();
+                String[] files = new String[in.readInt()];
+                for (int j = 0; j < files.length; j++)
+                    files[j] = readString(in);
+                String[] subdirs = new String[in.readInt()];
+                for (int j = 0; j < subdirs.length; j++)
+                    subdirs[j] = readString(in);
+                dirs.put(path, new Dir(lastModified, files, subdirs));
+            }
+            return dirs;
+        } catch (EOFException | RuntimeException e) {
+            // truncated or foreign file, rebuild
+            return Collections.emptyMap();
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void write(File indexFile, Map<String, Dir> dirs) throws IOException {
+        File parent = indexFile.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Can't create directory " + parent);
+        File tmp = new File(parent, indexFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(dirs.size());
+            for (Map.Entry<String, Dir> entry : dirs.entrySet()) {
+                writeString(out, entry.getKey());
+                Dir dir = entry.getValue();
+                out.writeLong(dir.lastModified);
+                out.writeInt(dir.files.length);
+                for (String file : dir.files)
+                    writeString(out, file);
+                out.writeInt(dir.dirs.length);
+                for (String subdir : dir.dirs)
+                    writeString(out, subdir);
+            }
+        }
+        Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    // Classes
+
+    private static class Dir {
+        private final long lastModified;
+        private final String[] files;
+        private final String[] dirs;
+        private Set<String> fileSet;
+
+        private Dir(long lastModified, String[] files, String[] dirs) {
+            this.lastModified = lastModified;
+            this.files = files;
+            this.dirs = dirs;
+        }
+
+        private synchronized boolean hasFile(String name) {
+            if (fileSet == null)
+                fileSet = new HashSet<String>(Arrays.asList(files));
+            return fileSet.contains(name);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.project.MavenProject;
+
+import java.util.*;
+
+/**
+ * Reactor module -> reactor modules it declares as dependencies, taken from the poms only
+ *
+ * @since 10/19/2026
+ */
+class ReactorGraph {
+    private final List<MavenProject> projects;
+    private final Map<MavenProject, List<MavenProject>> dependencyMap;
+
+    public ReactorGraph(List<MavenProject> projects, Map<MavenProject, List<MavenProject>> dependencyMap) {
+        this.projects = Collections.unmodifiableList(new ArrayList<MavenProject>(projects));
+        this.dependencyMap = dependencyMap;
+    }
+
+    public List<MavenProject> getProjects() {
+        return projects;
+    }
+
+    public List<MavenProject> getDependencies(MavenProject project) {
+        List<MavenProject> list = dependencyMap.get(project);
+        return list == null ? Collections.<MavenProject>emptyList() : list;
+    }
+
+    /**
+     * @param patterns module patterns: artifactId or groupId:artifactId, '*' wildcards are allowed
+     * @return modules matched by any of the patterns in reactor order
+     */
+    public List<MavenProject> select(Collection<String> patterns) {
+        List<String> list = new ArrayList<String>();
+        for (String pattern : patterns) {
+            String value = pattern.trim();
+            if (!value.isEmpty())
+                list.add(value.indexOf(':') < 0 ? "*:" + value : value);
+        }
+        ExclusionMatcher matcher = ExclusionMatcher.compile(list);
+        List<MavenProject> result = new ArrayList<MavenProject>();
+        for (MavenProject project : projects)
+            if (matcher.matches(project.getGroupId(), project.getArtifactId()))
+                result.add(project);
+        return result;
+    }
+
+    /**
+     * @param roots start modules
+     * @return roots and all their direct and transitive reactor dependencies in reactor order
+     */
+    public List<MavenProject> closure(Collection<MavenProject> roots) {
+        JfrEvents.ReactorClosure event = JfrEvents.reactorClosure(roots.size());
+        Set<MavenProject> visited = new HashSet<MavenProject>(roots);
+        Deque<MavenProject> queue = new ArrayDeque<MavenProject>(roots);
+        while (!queue.isEmpty())
+            for (MavenProject dependency : getDependencies(queue.poll()))
+                if (visited.add(dependency))
+                    queue.add(dependency);
+        List<MavenProject> result = new ArrayList<MavenProject>();
+        for (MavenProject project : projects)
+            if (visited.contains(project))
+                result.add(project);
+        if (event != null)
+            event.end(result.size());
+        return result;
+    }
+
+    /**
+     * Split modules into balanced shards, the weight of a module is the number of its declared dependencies.
+     * Heaviest modules go first to the lightest shard, ties are broken by id, so every process gets the same split.
+     *
+     * @param projects modules to split
+     * @param count    number of shards
+     * @return shards, every shard keeps reactor order
+     */
+    public static List<List<MavenProject>> partition(List<MavenProject> projects, int count) {
+        List<MavenProject> sorted = new ArrayList<MavenProject>(projects);
+        Collections.sort(sorted, (o1, o2) -> {
+            int result = Integer.compare(getWeight(o2), getWeight(o1));
+            return result != 0 ? result : o1.getId().compareTo(o2.getId());
+        });
+        long[] load = new long[count];
+        Map<MavenProject, Integer> shardMap = new HashMap<MavenProject, Integer>();
+        for (MavenProject project : sorted) {
+            int lightest = 0;
+            for (int i = 1; i < count; i++)
+                if (load[i] < load[lightest])
+                    lightest = i;
+            load[lightest] += getWeight(project);
+            shardMap.put(project, lightest);
+        }
+        List<List<MavenProject>> result = new ArrayList<List<MavenProject>>();
+        for (int i = 0; i < count; i++)
+            result.add(new ArrayList<MavenProject>());
+        for (MavenProject project : projects)
+            result.get(shardMap.get(project)).add(project);
+        return result;
+    }
+
+    private static int getWeight(MavenProject project) {
+        return 1 + project.getDependencies().size();
+    }
+}
@@ -0,0 +1,323 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.settings.Proxy;
+import org.codehaus.plexus.util.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+/**
+ * Health of remote repositories for one run. A repository is probed with the connect and read budgets before
+ * its first use, and again after every failed module resolution; downloads of idea1:prefetch are counted as well.
+ * After the given number of consecutive failures the breaker opens and the repository is left out
+ * for the rest of the run, so an unreachable repository costs a few budgets instead of a timeout per artifact.
+ * A probe fails on connection errors, timeouts, server errors (5xx) and answers slower than the read budget,
+ * other HTTP responses count as reachable. Probes and downloads go through the active proxy of the Maven settings;
+ * repositories behind a proxy which needs credentials are not probed, only Maven can authenticate there.
+ *
+ * @since 10/19/2026
+ */
+class RepositoryHealth {
+    private final Log log;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int failureThreshold;
+    private final Proxy proxy;
+    private final Pattern nonProxyHosts;
+
+    /**
+     * Repository id -> state
+     */
+    private final Map<String, State> states = new ConcurrentHashMap<String, State>();
+
+    /**
+     * @param log              log
+     * @param connectTimeout   connect budget in milliseconds
+     * @param readTimeout      read budget in milliseconds
+     * @param failureThreshold consecutive failures to skip a repository
+     * @param proxy            active proxy of the Maven settings, null for direct connections
+     */
+    public RepositoryHealth(Log log, int connectTimeout, int readTimeout, int failureThreshold, Proxy proxy) {
+        this.log = log;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.proxy = proxy == null || StringUtils.isEmpty(proxy.getHost()) ? null : proxy;
+        this.nonProxyHosts = this.proxy == null ? null : compileNonProxyHosts(this.proxy.getNonProxyHosts());
+    }
+
+    /**
+     * @param nonProxyHosts "host|*.domain" like in the Maven settings, commas are accepted too
+     */
+    private static Pattern compileNonProxyHosts(String nonProxyHosts) {
+        if (StringUtils.isEmpty(nonProxyHosts))
+            return null;
+        StringBuilder regex = new StringBuilder();
+        for (String host : nonProxyHosts.split("[|,]")) {
+            if (host.trim().isEmpty())
+                continue;
+            if (regex.length() > 0)
+                regex.append('|');
+            regex.append(Pattern.quote(host.trim()).replace("*", "\\E.*\\Q"));
+        }
+        return regex.length() == 0 ? null : Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Probe repositories seen for the first time, in parallel
+     *
+     * @param repositories remote repositories
+     * @return repositories which are not skipped, in the same order
+     */
+    public List<ArtifactRepository> filter(List<?> repositories) {
+        List<ArtifactRepository> unknown = new ArrayList<ArtifactRepository>();
+        for (Object object : repositories) {
+            ArtifactRepository repository = (ArtifactRepository) object;
+            if (states.putIfAbsent(repository.getId(), new State(repository.getUrl())) == null)
+                unknown.add(repository);
+        }
+        // until the first success or the breaker opens
+        probe(unknown, failureThreshold);
+        List<ArtifactRepository> result = new ArrayList<ArtifactRepository>(repositories.size());
+        for (Object object : repositories) {
+            ArtifactRepository repository = (ArtifactRepository) object;
+            // probed by another module resolved at the same time
+            try {
+                states.get(repository.getId()).probed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!isOpen(repository.getId()))
+                result.add(repository);
+        }
+        return result;
+    }
+
+    /**
+     * Probe repositories once more after a failed resolution
+     *
+     * @param repositories remote repositories used by the resolution
+     */
+    public void check(List<ArtifactRepository> repositories) {
+        List<ArtifactRepository> closed = new ArrayList<ArtifactRepository>();
+        for (ArtifactRepository repository : repositories)
+            if (!isOpen(repository.getId()))
+                closed.add(repository);
+        probe(closed, 1);
+    }
+
+    private void probe(List<ArtifactRepository> repositories, int attempts) {
+        if (repositories.isEmpty())
+            return;
+        ExecutorService executor = Executors.newFixedThreadPool(repositories.size());
+        try {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(repositories.size());
+            for (ArtifactRepository repository : repositories) {
+                tasks.add(() -> {
+                    try {
+                        for (int attempt = 0; attempt < attempts && !isOpen(repository.getId()) && canProbe(repository.getUrl()); attempt++) {
+                            long start = System.currentTimeMillis();
+                            String error = probe(repository.getUrl());
+                            long millis = System.currentTimeMillis() - start;
+                            // a repository this slow to answer a HEAD would time out downloads
+                            if (error == null && millis > readTimeout)
+                                error = "answered in " + millis + " ms, read budget " + readTimeout + " ms";
+                            if (error == null) {
+                                recordSuccess(repository.getId(), millis);
+                                break;
+                            }
+                            recordFailure(repository.getId(), error);
+                        }
+                    } finally {
+                        states.get(repository.getId()).probed.countDown();
+                    }
+                    return null;
+                });
+            }
+            executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param url repository URL
+     * @return error, null if the repository answers within the budgets
+     */
+    String probe(String url) {
+        try {
+            if (url.startsWith("file:"))
+                return new File(new URI(url)).isDirectory() ? null : "no directory " + url;
+            if (!url.startsWith("http:") && !url.startsWith("https:"))
+                return null;
+            HttpURLConnection http = (HttpURLConnection) openConnection(new URL(url.endsWith("/") ? url : url + "/"));
+            http.setRequestMethod("HEAD");
+            http.setInstanceFollowRedirects(false);
+            try {
+                int code = http.getResponseCode();
+                return code >= HttpURLConnection.HTTP_INTERNAL_ERROR ? "HTTP " + code : null;
+            } finally {
+                http.disconnect();
+            }
+        } catch (IOException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        } catch (Exception e) {
+            return e.toString();
+        }
+    }
+
+    /**
+     * @param url URL
+     * @return connection with the connect and read budgets, through the proxy of the settings if it applies to the URL
+     * @throws IOException can't open
+     */
+    public URLConnection openConnection(URL url) throws IOException {
+        URLConnection connection = isProxied(url.toString())
+                ? url.openConnection(new java.net.Proxy("socks".equalsIgnoreCase(proxy.getProtocol()) || "socks5".equalsIgnoreCase(proxy.getProtocol()) ? java.net.Proxy.Type.SOCKS : java.net.Proxy.Type.HTTP,
+                InetSocketAddress.createUnresolved(proxy.getHost(), proxy.getPort())))
+                : url.openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        return connection;
+    }
+
+    /**
+     * @param url URL
+     * @return false if requests to the URL go through a proxy which needs credentials
+     */
+    public boolean canConnect(String url) {
+        return !isProxied(url) || StringUtils.isEmpty(proxy.getUsername());
+    }
+
+    private boolean canProbe(String url) {
+        if (canConnect(url))
+            return true;
+        log.debug("Repository " + url + " is not probed, the proxy needs credentials");
+        return false;
+    }
+
+    private boolean isProxied(String url) {
+        if (proxy == null || !url.startsWith("http:") && !url.startsWith("https:"))
+            return false;
+        try {
+            String host = new URL(url).getHost();
+            return nonProxyHosts == null || !nonProxyHosts.matcher(host).matches();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public boolean isOpen(String repositoryId) {
+        State state = states.get(repositoryId);
+        return state != null && state.open;
+    }
+
+    public void recordSuccess(String repositoryId, long millis) {
+        State state = states.get(repositoryId);
+        if (state == null)
+            return;
+        synchronized (state) {
+            state.successes++;
+            state.millis += millis;
+            state.consecutiveFailures = 0;
+        }
+    }
+
+    public void recordFailure(String repositoryId, String error) {
+        State state = states.get(repositoryId);
+        if (state == null)
+            return;
+        synchronized (state) {
+            state.failures++;
+            state.lastError = error;
+            if (++state.consecutiveFailures < failureThreshold || state.open)
+                return;
+            state.open = true;
+        }
+        log.warn("Repository " + repositoryId + " (" + state.url + ") failed " + failureThreshold + " times in a row, it is skipped for the rest of the run: " + error);
+    }
+
+    /**
+     * Register a repository without probing it, for callers which report their own requests
+     *
+     * @param repository remote repository
+     */
+    public void register(ArtifactRepository repository) {
+        State state = new State(repository.getUrl());
+        state.probed.countDown();
+        states.putIfAbsent(repository.getId(), state);
+    }
+
+    public void log() {
+        if (states.isEmpty())
+            return;
+        log.info("");
+        log.info("Repository Health (connect " + connectTimeout + " ms, read " + readTimeout + " ms, " + failureThreshold + " failures to skip)");
+        log.info("");
+        for (Map.Entry<String, State> entry : new TreeMap<String, State>(states).entrySet()) {
+            State state = entry.getValue();
+            synchronized (state) {
+                log.info("  " + entry.getKey() + ": " + (state.open ? "SKIPPED" : "ok") + ", " + state.successes + " ok"
+                        + (state.successes > 0 ? " (avg " + state.millis / state.successes + " ms)" : "") + ", " + state.failures + " failed"
+                        + (state.lastError != null ? ", last error: " + state.lastError : "") + ", " + state.url);
+            }
+        }
+    }
+
+    // Classes
+
+    private static class State {
+        private final String url;
+        private final CountDownLatch probed = new CountDownLatch(1);
+        private int successes;
+        private int failures;
+        private int consecutiveFailures;
+        private long millis;
+        private String lastError;
+        private volatile boolean open;
+
+        private State(String url) {
+            this.url = url;
+        }
+    }
+}
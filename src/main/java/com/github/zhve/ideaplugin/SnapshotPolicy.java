@@ -0,0 +1,136 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.ArtifactRepositoryPolicy;
+import org.apache.maven.plugin.logging.Log;
+
+import java.util.*;
+
+/**
+ * Time to live of snapshot metadata (maven-metadata.xml) of remote repositories. A repository which checks snapshots
+ * more often than the TTL gets the update policy "interval:TTL", so the time of the last check recorded in the local
+ * repository is shared by all modules of a run and by the next runs. A refresh checks every snapshot once per run.
+ *
+ * @since 10/19/2026
+ */
+class SnapshotPolicy {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final Log log;
+    private final int ttl;
+    private final boolean refresh;
+
+    /**
+     * Changed policy -> original update policy
+     */
+    private final Map<ArtifactRepositoryPolicy, String> changed = new IdentityHashMap<ArtifactRepositoryPolicy, String>();
+
+    /**
+     * Ids of repositories checked with a changed update policy
+     */
+    private final Set<String> repositories = new TreeSet<String>();
+
+    /**
+     * @param log     log
+     * @param ttl     minutes a checked snapshot is not checked again, repository policies are kept if not positive
+     * @param refresh check all snapshots regardless of the TTL and repository policies
+     */
+    public SnapshotPolicy(Log log, int ttl, boolean refresh) {
+        this.log = log;
+        this.ttl = ttl;
+        this.refresh = refresh;
+    }
+
+    /**
+     * @param repositoryId repository id
+     * @param updatePolicy snapshot update policy of the repository
+     * @return update policy to check snapshots with
+     */
+    public synchronized String getUpdatePolicy(String repositoryId, String updatePolicy) {
+        String result;
+        if (refresh)
+            result = ArtifactRepositoryPolicy.UPDATE_POLICY_ALWAYS;
+        else if (ttl <= 0 || getMinutes(updatePolicy) >= ttl)
+            result = updatePolicy;
+        else
+            result = ArtifactRepositoryPolicy.UPDATE_POLICY_INTERVAL + ":" + ttl;
+        if (result != null && !result.equals(updatePolicy))
+            repositories.add(repositoryId);
+        return result;
+    }
+
+    /**
+     * @param updatePolicy update policy, daily if not set like in Maven
+     * @return minutes between checks
+     */
+    private static long getMinutes(String updatePolicy) {
+        if (updatePolicy == null || updatePolicy.isEmpty() || ArtifactRepositoryPolicy.UPDATE_POLICY_DAILY.equals(updatePolicy))
+            return MINUTES_PER_DAY;
+        if (ArtifactRepositoryPolicy.UPDATE_POLICY_NEVER.equals(updatePolicy))
+            return Long.MAX_VALUE;
+        if (updatePolicy.startsWith(ArtifactRepositoryPolicy.UPDATE_POLICY_INTERVAL + ":")) {
+            try {
+                return Long.parseLong(updatePolicy.substring(ArtifactRepositoryPolicy.UPDATE_POLICY_INTERVAL.length() + 1).trim());
+            } catch (NumberFormatException e) {
+                return MINUTES_PER_DAY;
+            }
+        }
+        // always or unknown
+        return 0;
+    }
+
+    /**
+     * Change snapshot update policies of repositories of the build, see {@link #restore()}
+     *
+     * @param repositories remote repositories
+     * @return the same repositories
+     */
+    public synchronized List<ArtifactRepository> apply(List<ArtifactRepository> repositories) {
+        for (ArtifactRepository repository : repositories) {
+            ArtifactRepositoryPolicy policy = repository.getSnapshots();
+            if (policy == null || !policy.isEnabled() || changed.containsKey(policy))
+                continue;
+            String updatePolicy = getUpdatePolicy(repository.getId(), policy.getUpdatePolicy());
+            if (updatePolicy != null && !updatePolicy.equals(policy.getUpdatePolicy())) {
+                changed.put(policy, policy.getUpdatePolicy());
+                policy.setUpdatePolicy(updatePolicy);
+            }
+        }
+        return repositories;
+    }
+
+    /**
+     * Put back the update policies changed by {@link #apply(List)}, so later goals of the build get them
+     */
+    public synchronized void restore() {
+        for (Map.Entry<ArtifactRepositoryPolicy, String> entry : changed.entrySet())
+            entry.getKey().setUpdatePolicy(entry.getValue());
+        changed.clear();
+    }
+
+    public synchronized void log() {
+        if (repositories.isEmpty())
+            return;
+        log.info("");
+        log.info("Snapshot Metadata: " + (refresh ? "refreshed" : "checked at most every " + ttl + " minutes") + " in " + repositories);
+    }
+}
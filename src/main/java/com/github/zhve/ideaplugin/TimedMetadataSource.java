@@ -0,0 +1,159 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.metadata.ResolutionGroup;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Times every metadata retrieval of the wrapped {@link ArtifactMetadataSource}.
+ * It is a dynamic proxy over all interfaces of the real source, because Maven 3 calls
+ * retrieve methods which are not part of the Maven 2 interface this plugin is compiled against.
+ * The origin of an artifact, the repository which finally served its pom, is read from _remote.repositories
+ * in the local repository, artifacts without it are counted as "local". The time spent on repositories tried
+ * before is charged to the origin too, Maven doesn't tell the transfers of one retrieval apart.
+ * A failed retrieval has an origin only if a single repository was asked, "unknown" otherwise.
+ *
+ * @since 10/19/2026
+ */
+class TimedMetadataSource implements InvocationHandler {
+    private final ArtifactMetadataSource delegate;
+    private final ArtifactRepository localRepository;
+    private final LatencyReport report;
+
+    private TimedMetadataSource(ArtifactMetadataSource delegate, ArtifactRepository localRepository, LatencyReport report) {
+        this.delegate = delegate;
+        this.localRepository = localRepository;
+        this.report = report;
+    }
+
+    public static ArtifactMetadataSource wrap(ArtifactMetadataSource delegate, ArtifactRepository localRepository, LatencyReport report) {
+        return (ArtifactMetadataSource) Proxy.newProxyInstance(delegate.getClass().getClassLoader(),
+                Util.getAllInterfaces(delegate.getClass()),
+                new TimedMetadataSource(delegate, localRepository, report));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (!method.getName().startsWith("retrieve") || args == null || args.length == 0)
+            return invokeDelegate(method, args);
+        Artifact artifact = getArtifact(args[0]);
+        JfrEvents.MetadataRetrieval event = artifact == null ? null : JfrEvents.metadataRetrieval(artifact.getId(), method.getName());
+        long start = System.nanoTime();
+        boolean failed = true;
+        Object result = null;
+        try {
+            result = invokeDelegate(method, args);
+            failed = false;
+            return result;
+        } finally {
+            long millis = (System.nanoTime() - start) / 1000000;
+            if (artifact != null) {
+                String origin = failed ? getRemoteRepositoryId(args) : getOrigin(artifact);
+                report.recordArtifact(artifact.getId(), origin, millis, failed);
+                if (event != null)
+                    event.end(origin, getCount(result), failed);
+            }
+        }
+    }
+
+    private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @param arg artifact or Maven 3 metadata request
+     * @return artifact
+     */
+    static Artifact getArtifact(Object arg) {
+        if (arg instanceof Artifact)
+            return (Artifact) arg;
+        Object value = invokeGetter(arg, "getArtifact");
+        return value instanceof Artifact ? (Artifact) value : null;
+    }
+
+    /**
+     * @param result resolution group or list of versions
+     * @return number of artifacts or versions
+     */
+    private static int getCount(Object result) {
+        if (result instanceof ResolutionGroup)
+            return ((ResolutionGroup) result).getArtifacts() == null ? 0 : ((ResolutionGroup) result).getArtifacts().size();
+        return result instanceof Collection ? ((Collection) result).size() : 0;
+    }
+
+    private static String getRemoteRepositoryId(Object[] args) {
+        Object repositories = args.length > 2 ? args[2] : invokeGetter(args[0], "getRemoteRepositories");
+        if (repositories instanceof List && ((List) repositories).size() == 1 && ((List) repositories).get(0) instanceof ArtifactRepository)
+            return ((ArtifactRepository) ((List) repositories).get(0)).getId();
+        return "unknown";
+    }
+
+    private static Object invokeGetter(Object target, String name) {
+        try {
+            return target.getClass().getMethod(name).invoke(target);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String getOrigin(Artifact artifact) {
+        try {
+            File file = new File(localRepository.getBasedir(), localRepository.pathOf(artifact));
+            File remoteRepositories = new File(file.getParentFile(), "_remote.repositories");
+            if (!remoteRepositories.isFile())
+                return "local";
+            String prefix = artifact.getArtifactId() + "-" + artifact.getVersion() + ".pom>";
+            String any = null;
+            for (String line : Files.readAllLines(remoteRepositories.toPath(), StandardCharsets.UTF_8)) {
+                int i = line.indexOf('>');
+                if (line.startsWith("#") || i < 0)
+                    continue;
+                String id = line.substring(i + 1, line.endsWith("=") ? line.length() - 1 : line.length());
+                if (line.startsWith(prefix))
+                    return id.isEmpty() ? "local" : id;
+                if (any == null && !id.isEmpty())
+                    any = id;
+            }
+            return any == null ? "local" : any;
+        } catch (IOException e) {
+            return "unknown";
+        } catch (RuntimeException e) {
+            return "unknown";
+        }
+    }
+}
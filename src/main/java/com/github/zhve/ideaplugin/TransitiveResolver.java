@@ -0,0 +1,44 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.project.MavenProject;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Strategy to resolve remote dependencies of reactor projects transitively
+ *
+ * @since 10/19/2026
+ */
+interface TransitiveResolver {
+    /**
+     * @param dependencyDataMap project -> remote dependencies to resolve and reactor dependencies, both with inherited ones
+     * @param reactorArtifacts  reactor artifacts
+     * @param callback          called for every project as soon as it is resolved, may be null
+     * @return project -> resolved remote dependencies and reactor dependencies, in the order of dependencyDataMap
+     */
+    Map<MavenProject, ArtifactDependencyResolver.DependencyData> resolve(Map<MavenProject, ArtifactDependencyResolver.DependencyData> dependencyDataMap,
+                                                                         Set<Artifact> reactorArtifacts,
+                                                                         BiConsumer<MavenProject, ArtifactDependencyResolver.DependencyData> callback);
+}
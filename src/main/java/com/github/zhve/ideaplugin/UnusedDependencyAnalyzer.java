@@ -0,0 +1,356 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Which dependencies of a module its compiled classes actually reference. Class files of the output directories
+ * are read in parallel, see {@link ClassReferences}, and every referenced class is mapped to the first dependency
+ * on the module classpath which has it: a library jar, see {@link JarIndex}, or the output directory of a reactor module.
+ * Modules which are not compiled yet are not analyzed.
+ *
+ * @since 10/19/2026
+ */
+class UnusedDependencyAnalyzer {
+    private final Log log;
+    private final JarIndex jarIndex;
+    private final int threads;
+
+    /**
+     * groupId:artifactId -> reactor project
+     */
+    private final Map<String, MavenProject> reactorMap = new HashMap<String, MavenProject>();
+
+    /**
+     * Jar or output directory -> package -> sorted class names
+     */
+    private final ConcurrentMap<File, Map<String, String[]>> classesMap = new ConcurrentHashMap<File, Map<String, String[]>>();
+
+    /**
+     * @param log             log
+     * @param jarIndex        class lists of jars
+     * @param reactorProjects reactor projects
+     * @param threads         number of files read at once
+     */
+    public UnusedDependencyAnalyzer(Log log, JarIndex jarIndex, List<MavenProject> reactorProjects, int threads) {
+        this.log = log;
+        this.jarIndex = jarIndex;
+        this.threads = Math.max(1, threads);
+        for (MavenProject project : reactorProjects)
+            reactorMap.put(project.getGroupId() + ":" + project.getArtifactId(), project);
+    }
+
+    /**
+     * @param project      module
+     * @param dependencies resolved dependencies in classpath order
+     * @return result, null if the module has no compiled classes
+     * @throws IOException          can't read a class file
+     * @throws InterruptedException interrupted
+     */
+    public Result analyze(MavenProject project, List<Artifact> dependencies) throws IOException, InterruptedException {
+        List<Path> classFiles = new ArrayList<Path>();
+        Set<String> ownClasses = new HashSet<String>();
+        for (String directory : Arrays.asList(project.getBuild().getOutputDirectory(), project.getBuild().getTestOutputDirectory())) {
+            Path root = new File(directory).toPath();
+            if (!Files.isDirectory(root))
+                continue;
+            try (Stream<Path> walk = Files.walk(root)) {
+                for (Path path : walk.filter(p -> p.toString().endsWith(".class")).collect(Collectors.toList())) {
+                    classFiles.add(path);
+                    ownClasses.add(getClassName(root, path));
+                }
+            }
+        }
+        if (classFiles.isEmpty())
+            return null;
+
+        // class files in parallel
+        Set<String> referenced = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(classFiles.size());
+            for (Path path : classFiles) {
+                tasks.add(() -> {
+                    try {
+                        ClassReferences.read(Files.readAllBytes(path), referenced);
+                    } catch (IOException e) {
+                        log.warn("Can't read " + path + ": " + e.getMessage());
+                    }
+                    return null;
+                });
+            }
+            executor.invokeAll(tasks);
+        } finally {
+            executor.shutdownNow();
+        }
+        referenced.removeAll(ownClasses);
+
+        // package -> dependencies which have it, in classpath order
+        List<File> jars = new ArrayList<File>();
+        for (Artifact artifact : dependencies)
+            if (getReactorProject(artifact) == null && artifact.getFile() != null && artifact.getFile().isFile() && !classesMap.containsKey(artifact.getFile()))
+                jars.add(artifact.getFile());
+        for (Map.Entry<File, String[]> entry : jarIndex.index(jars, threads).entrySet())
+            classesMap.put(entry.getKey(), groupByPackage(entry.getValue()));
+        Map<String, List<Artifact>> packages = new HashMap<String, List<Artifact>>();
+        Map<Artifact, Map<String, String[]>> artifactClasses = new HashMap<Artifact, Map<String, String[]>>();
+        for (Artifact artifact : dependencies) {
+            Map<String, String[]> classes = getClasses(artifact);
+            artifactClasses.put(artifact, classes);
+            for (String packageName : classes.keySet()) {
+                List<Artifact> list = packages.get(packageName);
+                if (list == null)
+                    packages.put(packageName, list = new ArrayList<Artifact>(1));
+                list.add(artifact);
+            }
+        }
+
+        Set<Artifact> used = new HashSet<Artifact>();
+        for (String className : referenced) {
+            String packageName = JarIndex.getPackage(className);
+            List<Artifact> candidates = packages.get(packageName);
+            if (candidates == null)
+                continue;
+            for (Artifact artifact : candidates) {
+                if (Arrays.binarySearch(artifactClasses.get(artifact).get(packageName), className) >= 0) {
+                    used.add(artifact);
+                    break;
+                }
+            }
+        }
+        Set<Artifact> reactorDependencies = new HashSet<Artifact>();
+        for (Artifact artifact : dependencies)
+            if (getReactorProject(artifact) != null)
+                reactorDependencies.add(artifact);
+        return new Result(project, dependencies, used, reactorDependencies, classFiles.size());
+    }
+
+    /**
+     * @param project module
+     * @return false if a source file is newer than the newest class file compiled from its source roots
+     * @throws IOException can't list a directory
+     */
+    public boolean isUpToDate(MavenProject project) throws IOException {
+        @SuppressWarnings("unchecked")
+        List<String> compileRoots = project.getCompileSourceRoots();
+        @SuppressWarnings("unchecked")
+        List<String> testRoots = project.getTestCompileSourceRoots();
+        return getLastModified(compileRoots, ".java") <= getLastModified(Collections.singletonList(project.getBuild().getOutputDirectory()), ".class")
+                && getLastModified(testRoots, ".java") <= getLastModified(Collections.singletonList(project.getBuild().getTestOutputDirectory()), ".class");
+    }
+
+    private static long getLastModified(List<String> directories, String extension) throws IOException {
+        long lastModified = 0;
+        for (String directory : directories) {
+            Path root = new File(directory).toPath();
+            if (!Files.isDirectory(root))
+                continue;
+            try (Stream<Path> walk = Files.walk(root)) {
+                for (Path path : walk.filter(p -> p.toString().endsWith(extension)).collect(Collectors.toList()))
+                    lastModified = Math.max(lastModified, Files.getLastModifiedTime(path).toMillis());
+            }
+        }
+        return lastModified;
+    }
+
+    /**
+     * Write the report grouped by module
+     *
+     * @param file    target file, parent directories are created
+     * @param results project id -> result
+     * @throws IOException error
+     */
+    public static void write(File file, Map<String, Result> results) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Can't create directory " + parent);
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"))) {
+            for (Map.Entry<String, Result> entry : results.entrySet()) {
+                Result result = entry.getValue();
+                writer.println(entry.getKey() + " (" + result.getClassFiles() + " classes, " + result.getUsed().size() + " dependencies used, " + result.getTrimmed().size() + " after trim)");
+                write(writer, "unused declared", result.getUnusedDeclared());
+                write(writer, "used undeclared", result.getUsedUndeclared());
+                write(writer, "unused transitive", result.getUnusedTransitive());
+                writer.println();
+            }
+        }
+    }
+
+    private static void write(PrintWriter writer, String title, List<Artifact> artifacts) {
+        if (artifacts.isEmpty())
+            return;
+        writer.println("  " + title);
+        for (Artifact artifact : artifacts)
+            writer.println("    " + artifact.getId() + ":" + artifact.getScope());
+    }
+
+    private MavenProject getReactorProject(Artifact artifact) {
+        return reactorMap.get(artifact.getGroupId() + ":" + artifact.getArtifactId());
+    }
+
+    /**
+     * @return package -> sorted class names of a jar or a reactor module output directory
+     */
+    private Map<String, String[]> getClasses(Artifact artifact) throws IOException {
+        MavenProject reactorProject = getReactorProject(artifact);
+        File file;
+        if (reactorProject != null)
+            file = new File("tests".equals(artifact.getClassifier()) ? reactorProject.getBuild().getTestOutputDirectory() : reactorProject.getBuild().getOutputDirectory());
+        else
+            file = artifact.getFile();
+        if (file == null)
+            return Collections.emptyMap();
+        Map<String, String[]> classes = classesMap.get(file);
+        if (classes != null)
+            return classes;
+        List<String> names = new ArrayList<String>();
+        if (file.isDirectory()) {
+            Path root = file.toPath();
+            try (Stream<Path> walk = Files.walk(root)) {
+                for (Path path : walk.filter(p -> p.toString().endsWith(".class")).collect(Collectors.toList()))
+                    names.add(getClassName(root, path));
+            }
+        }
+        classes = groupByPackage(names.toArray(new String[names.size()]));
+        classesMap.put(file, classes);
+        return classes;
+    }
+
+    private static Map<String, String[]> groupByPackage(String[] classNames) {
+        Map<String, List<String>> lists = new HashMap<String, List<String>>();
+        for (String className : classNames) {
+            String packageName = JarIndex.getPackage(className);
+            List<String> list = lists.get(packageName);
+            if (list == null)
+                lists.put(packageName, list = new ArrayList<String>());
+            list.add(className);
+        }
+        Map<String, String[]> result = new HashMap<String, String[]>();
+        for (Map.Entry<String, List<String>> entry : lists.entrySet()) {
+            String[] names = entry.getValue().toArray(new String[entry.getValue().size()]);
+            Arrays.sort(names);
+            result.put(entry.getKey(), names);
+        }
+        return result;
+    }
+
+    private static String getClassName(Path root, Path classFile) {
+        String path = root.relativize(classFile).toString().replace(File.separatorChar, '/');
+        return path.substring(0, path.length() - ".class".length());
+    }
+
+    static class Result {
+        private final List<Artifact> used = new ArrayList<Artifact>();
+        private final List<Artifact> unusedDeclared = new ArrayList<Artifact>();
+        private final List<Artifact> usedUndeclared = new ArrayList<Artifact>();
+        private final List<Artifact> unusedTransitive = new ArrayList<Artifact>();
+        private final List<Artifact> trimmed = new ArrayList<Artifact>();
+        private final int classFiles;
+
+        private Result(MavenProject project, List<Artifact> dependencies, Set<Artifact> usedSet, Set<Artifact> reactorDependencies, int classFiles) {
+            this.classFiles = classFiles;
+            Set<String> declared = new HashSet<String>();
+            for (Object object : project.getDependencies())
+                declared.add(((Dependency) object).getGroupId() + ":" + ((Dependency) object).getArtifactId());
+            for (Artifact artifact : dependencies) {
+                boolean isDeclared = declared.contains(artifact.getGroupId() + ":" + artifact.getArtifactId());
+                if (usedSet.contains(artifact)) {
+                    used.add(artifact);
+                    if (!isDeclared)
+                        usedUndeclared.add(artifact);
+                } else if (isDeclared) {
+                    // runtime dependencies are not supposed to be referenced
+                    if (!Artifact.SCOPE_RUNTIME.equals(artifact.getScope()) && !"pom".equals(artifact.getType()))
+                        unusedDeclared.add(artifact);
+                } else {
+                    unusedTransitive.add(artifact);
+                }
+            }
+            // the compiler needs supertypes and annotations of used classes, which their own dependencies bring
+            Set<String> usedIds = new HashSet<String>();
+            for (Artifact artifact : used)
+                usedIds.add(artifact.getId());
+            // declared dependencies stay, annotation processors, source annotations and inlined constants leave
+            // no reference; reactor modules stay, they make the module graph, runtime entries are not supposed to be referenced
+            Set<Artifact> unused = new HashSet<Artifact>(unusedTransitive);
+            unused.removeAll(reactorDependencies);
+            for (Artifact artifact : dependencies)
+                if (!unused.contains(artifact) || Artifact.SCOPE_RUNTIME.equals(artifact.getScope()) || isNeededBy(artifact, usedIds))
+                    trimmed.add(artifact);
+        }
+
+        /**
+         * @return true if a used dependency brings the artifact, the first trail element is the module itself
+         */
+        private static boolean isNeededBy(Artifact artifact, Set<String> usedIds) {
+            List<String> trail = artifact.getDependencyTrail();
+            if (trail == null)
+                return false;
+            for (int i = 1; i < trail.size() - 1; i++)
+                if (usedIds.contains(trail.get(i)))
+                    return true;
+            return false;
+        }
+
+        public List<Artifact> getUsed() {
+            return used;
+        }
+
+        public List<Artifact> getUnusedDeclared() {
+            return unusedDeclared;
+        }
+
+        public List<Artifact> getUsedUndeclared() {
+            return usedUndeclared;
+        }
+
+        public List<Artifact> getUnusedTransitive() {
+            return unusedTransitive;
+        }
+
+        public int getClassFiles() {
+            return classFiles;
+        }
+
+        /**
+         * @return dependencies without unused transitive ones, which used dependencies don't bring and which are not runtime ones, in classpath order
+         */
+        public List<Artifact> getTrimmed() {
+            return trimmed;
+        }
+    }
+}
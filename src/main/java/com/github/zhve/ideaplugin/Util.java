@@ -20,8 +20,10 @@ package com.github.zhve.ideaplugin;
  */
 
 import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
 
 import java.io.File;
+import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -57,20 +59,70 @@ class Util {
         return b.toString();
     }
 
-    public static void deleteFileOrDirectory(Log log, File file) {
+    public static String escapeJson(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\')
+                sb.append('\\').append(c);
+            else if (c < 0x20)
+                sb.append(String.format("\\u%04x", (int) c));
+            else
+                sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param type class
+     * @return all interfaces implemented by the class, its superclasses and superinterfaces
+     */
+    public static Class<?>[] getAllInterfaces(Class<?> type) {
+        Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+        Deque<Class<?>> queue = new ArrayDeque<Class<?>>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass())
+            queue.add(c);
+        while (!queue.isEmpty())
+            for (Class<?> i : queue.poll().getInterfaces())
+                if (interfaces.add(i))
+                    queue.add(i);
+        return interfaces.toArray(new Class<?>[interfaces.size()]);
+    }
+
+    public static MavenProject getExecutionRoot(List<MavenProject> reactorProjects) {
+        for (MavenProject project : reactorProjects)
+            if (project.isExecutionRoot())
+                return project;
+        return reactorProjects.get(0);
+    }
+
+    public static String getRelativePath(File base, File file) {
+        return base.toPath().toAbsolutePath().normalize().relativize(file.toPath().toAbsolutePath().normalize()).toString();
+    }
+
+    /**
+     * @param log     log
+     * @param file    file or directory to delete
+     * @param deleted number of deleted files and bytes, incremented, null to skip counting
+     */
+    public static void deleteFileOrDirectory(Log log, File file, long[] deleted) {
         if (file.exists()) {
             if (file.isDirectory()) {
                 // clean directory
                 File[] files = file.listFiles();
                 if (files != null) {
                     for (File f : files)
-                        deleteFileOrDirectory(log, f);
+                        deleteFileOrDirectory(log, f, deleted);
                 }
             }
             // delete file or empty directory
-            if (file.delete())
+            long length = deleted != null && file.isFile() ? file.length() : 0;
+            if (file.delete()) {
+                if (deleted != null) {
+                    deleted[0]++;
+                    deleted[1] += length;
+                }
                 log.info(" " + file.getAbsolutePath());
-            else
+            } else
                 log.error(file.getAbsolutePath());
         } else {
             log.info(" " + file.getAbsolutePath());
@@ -31,6 +31,9 @@ import org.apache.velocity.runtime.RuntimeConstants;
  */
 class VelocityWorker {
     private Template imlTemplate;
+    private Template libraryTemplate;
+    private Template systemLibraryTemplate;
+    private Template compilerTemplate;
     private Template iprTemplate;
     private Template iwsTemplate;
 
@@ -41,6 +44,9 @@ class VelocityWorker {
         Velocity.init();
 
         imlTemplate = Velocity.getTemplate("ideaplugin/idea-iml.vm");
+        libraryTemplate = Velocity.getTemplate("ideaplugin/idea-library.vm");
+        systemLibraryTemplate = Velocity.getTemplate("ideaplugin/idea-system-library.vm");
+        compilerTemplate = Velocity.getTemplate("ideaplugin/idea-compiler.vm");
 //        iprTemplate = Velocity.getTemplate("ideaplugin/idea-ipr.vm");
 //        iwsTemplate = Velocity.getTemplate("ideaplugin/idea-iws.vm");
     }
@@ -51,4 +57,16 @@ class VelocityWorker {
         return imlTemplate;
     }
 
+    public Template getLibraryTemplate() {
+        return libraryTemplate;
+    }
+
+    public Template getSystemLibraryTemplate() {
+        return systemLibraryTemplate;
+    }
+
+    public Template getCompilerTemplate() {
+        return compilerTemplate;
+    }
+
 }
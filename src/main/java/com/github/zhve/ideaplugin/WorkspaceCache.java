@@ -0,0 +1,351 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Content-addressed cache of generated workspaces. The key is a SHA-256 of the plugin version, the goal,
+ * all reactor poms, their effective models (active profiles, dependencies, dependency management, plugins, roots
+ * and repositories after properties and parents are applied) and the plugin parameters, so checkouts of the same
+ * commit with the same settings share one entry.
+ * Generated files also depend on the machine: sources and javadoc jars in the local repository, heavy directories,
+ * system jars outside the root. These facts are recorded with an entry and checked again before it is restored,
+ * so a key has one entry per set of facts, in a directory named by their hash under the key directory.
+ * An entry has the workspace files at their paths relative to the execution root, a manifest listing them
+ * and the facts. Entries are written to a temporary directory and renamed, so a concurrent run
+ * on a shared disk sees either a complete entry or none.
+ *
+ * @since 10/19/2026
+ */
+class WorkspaceCache {
+    private static final String MANIFEST = "workspace.txt";
+    private static final String FACTS = "facts.txt";
+    private static final String FILES = "files";
+    private static final String WORKSPACE_FILE = "workspace.xml";
+    private static final String COMPILER_FILE = "compiler.xml";
+    /**
+     * Parameters which don't change the generated files
+     */
+    private static final Set<String> IGNORED_PARAMETERS = new HashSet<String>(Arrays.asList(
+            "compilePath", "outputCache", "stagingDirectory", "conflictReport", "latencyReport", "missingSourcesCache",
+            "localRepositoryIndex", "resolverThreads", "pipelined", "whoIndex", "jarIndex",
+            "repositoryHealth", "repositoryConnectTimeout", "repositoryReadTimeout", "repositoryFailures",
+            "snapshotTtl", "refreshSnapshots"));
+
+    private final Log log;
+    private final File directory;
+    private final File root;
+    private final String key;
+
+    /**
+     * @param log       log
+     * @param directory cache directory
+     * @param root      execution root, workspace files are stored relative to it
+     * @param key       see {@link #computeKey(String, List, File, AbstractMojo)}
+     */
+    public WorkspaceCache(Log log, File directory, File root, String key) {
+        this.log = log;
+        this.directory = directory;
+        this.root = root.getAbsoluteFile();
+        this.key = key;
+    }
+
+    /**
+     * @param pluginVersion   plugin version
+     * @param reactorProjects reactor projects, their poms and effective models are hashed with paths relative to the root
+     * @param root            execution root, replaced with a placeholder in parameter values
+     * @param mojo            mojo, its fields of simple types are hashed as parameters
+     * @return cache key
+     * @throws IOException can't read a pom
+     */
+    public static String computeKey(String pluginVersion, List<MavenProject> reactorProjects, File root, AbstractMojo mojo) throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, "plugin=" + pluginVersion);
+        update(digest, "goal=" + mojo.getClass().getName());
+        updatePoms(digest, reactorProjects, root);
+        String rootPath = root.getAbsolutePath();
+        updateModels(digest, reactorProjects, rootPath);
+        for (Class<?> c = mojo.getClass(); c != AbstractMojo.class && c != Object.class; c = c.getSuperclass()) {
+            Field[] fields = c.getDeclaredFields();
+            Arrays.sort(fields, (o1, o2) -> o1.getName().compareTo(o2.getName()));
+            for (Field field : fields) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic() || IGNORED_PARAMETERS.contains(field.getName()))
+                    continue;
+                field.setAccessible(true);
+                Object value;
+                try {
+                    value = field.get(mojo);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (isParameterValue(field.getType(), value))
+                    update(digest, c.getSimpleName() + "." + field.getName() + "=" + String.valueOf(value).replace(rootPath, "$ROOT$"));
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @param digest          digest to update with every reactor pom and its path relative to the root
+     * @param reactorProjects reactor projects
+     * @param root            execution root
+     * @throws IOException can't read a pom
+     */
+    static void updatePoms(MessageDigest digest, List<MavenProject> reactorProjects, File root) throws IOException {
+        Map<String, File> poms = new TreeMap<String, File>();
+        for (MavenProject project : reactorProjects)
+            poms.put(Util.getRelativePath(root, project.getFile()).replace(File.separatorChar, '/'), project.getFile());
+        for (Map.Entry<String, File> entry : poms.entrySet()) {
+            update(digest, "pom=" + entry.getKey());
+            digest.update(Files.readAllBytes(entry.getValue().toPath()));
+        }
+    }
+
+    /**
+     * Profiles activated by -P or properties, -D properties and parents outside the reactor change the effective model
+     * of a module without changing its pom
+     *
+     * @param digest          digest to update
+     * @param reactorProjects reactor projects
+     * @param rootPath        execution root, replaced with a placeholder in paths
+     */
+    private static void updateModels(MessageDigest digest, List<MavenProject> reactorProjects, String rootPath) {
+        Map<String, MavenProject> projects = new TreeMap<String, MavenProject>();
+        for (MavenProject project : reactorProjects)
+            projects.put(project.getId(), project);
+        for (MavenProject project : projects.values()) {
+            List<String> lines = new ArrayList<String>();
+            lines.add("project=" + project.getId());
+            for (Object profile : project.getActiveProfiles())
+                lines.add("profile=" + ((Profile) profile).getId());
+            for (Object dependency : project.getDependencies())
+                lines.add("dependency=" + format((Dependency) dependency));
+            if (project.getDependencyManagement() != null)
+                for (Object dependency : project.getDependencyManagement().getDependencies())
+                    lines.add("managed=" + format((Dependency) dependency));
+            for (Object plugin : project.getBuildPlugins())
+                lines.add("plugin=" + ((Plugin) plugin).getKey() + ":" + ((Plugin) plugin).getVersion() + ":" + ((Plugin) plugin).getConfiguration());
+            for (Object root : project.getCompileSourceRoots())
+                lines.add("source=" + root);
+            for (Object root : project.getTestCompileSourceRoots())
+                lines.add("test-source=" + root);
+            for (Object resource : project.getBuild().getResources())
+                lines.add("resource=" + ((Resource) resource).getDirectory());
+            for (Object resource : project.getBuild().getTestResources())
+                lines.add("test-resource=" + ((Resource) resource).getDirectory());
+            lines.add("output=" + project.getBuild().getDirectory());
+            for (Object repository : project.getRemoteArtifactRepositories())
+                lines.add("repository=" + ((ArtifactRepository) repository).getId() + "=" + ((ArtifactRepository) repository).getUrl());
+            for (String line : lines)
+                update(digest, line.replace(rootPath, "$ROOT$"));
+        }
+    }
+
+    private static String format(Dependency dependency) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(dependency.getGroupId()).append(':').append(dependency.getArtifactId()).append(':').append(dependency.getType())
+                .append(':').append(dependency.getClassifier()).append(':').append(dependency.getVersion()).append(':').append(dependency.getScope())
+                .append(':').append(dependency.isOptional()).append(':').append(dependency.getSystemPath());
+        for (Object exclusion : dependency.getExclusions())
+            sb.append(":-").append(((Exclusion) exclusion).getGroupId()).append(':').append(((Exclusion) exclusion).getArtifactId());
+        return sb.toString();
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes)
+            sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    private static boolean isParameterValue(Class<?> type, Object value) {
+        if (type.isPrimitive() || type == String.class || type == File.class || Number.class.isAssignableFrom(type) || type == Boolean.class)
+            return true;
+        if (!Collection.class.isAssignableFrom(type))
+            return false;
+        if (value != null)
+            for (Object element : (Collection) value)
+                if (!(element instanceof String) && !(element instanceof File))
+                    return false;
+        return true;
+    }
+
+    static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Stage all files of a cached workspace whose facts hold on this machine
+     *
+     * @param stage workspace stage
+     * @param facts current values of facts
+     * @return false on a miss, nothing is staged then
+     * @throws Exception can't copy a file or check the facts
+     */
+    public boolean restore(WorkspaceStage stage, Facts facts) throws Exception {
+        File[] entries = new File(directory, key).listFiles(file -> new File(file, FACTS).isFile() && new File(file, MANIFEST).isFile());
+        if (entries == null)
+            return false;
+        Arrays.sort(entries);
+        for (File entry : entries) {
+            Map<String, String> recorded = readFacts(new File(entry, FACTS));
+            Map<String, String> current = facts.getCurrent(recorded.keySet());
+            if (!recorded.equals(current)) {
+                for (Map.Entry<String, String> fact : recorded.entrySet())
+                    if (!fact.getValue().equals(current.get(fact.getKey())))
+                        log.debug("Workspace cache entry " + entry.getName() + ": " + fact.getKey() + " is " + current.get(fact.getKey()) + ", not " + fact.getValue());
+                continue;
+            }
+            List<String> paths = Files.readAllLines(new File(entry, MANIFEST).toPath(), StandardCharsets.UTF_8);
+            boolean complete = true;
+            for (String path : paths) {
+                if (!new File(new File(entry, FILES), path).isFile()) {
+                    log.warn("Incomplete workspace cache entry " + entry + ", missing " + path);
+                    complete = false;
+                    break;
+                }
+            }
+            if (!complete)
+                continue;
+            for (String path : paths)
+                Files.copy(new File(new File(entry, FILES), path).toPath(), stage.stage(new File(root, path)).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            log.info("");
+            log.info("Workspace Cache Hit: " + key + "/" + entry.getName() + " (" + paths.size() + " files, " + recorded.size() + " facts)");
+            return true;
+        }
+        return false;
+    }
+
+    private static Map<String, String> readFacts(File file) throws IOException {
+        Map<String, String> facts = new TreeMap<String, String>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            int i = line.indexOf('\t');
+            if (i > 0)
+                facts.put(line.substring(0, i), line.substring(i + 1));
+        }
+        return facts;
+    }
+
+    /**
+     * Store staged workspace files, a failure is only logged
+     *
+     * @param files target file -> staged file
+     * @param facts facts the files depend on, name -> value, names and values without tabs and line breaks
+     */
+    public void store(Map<File, File> files, Map<String, String> facts) {
+        List<String> factLines = new ArrayList<String>(facts.size());
+        for (Map.Entry<String, String> fact : new TreeMap<String, String>(facts).entrySet())
+            factLines.add(fact.getKey() + "\t" + fact.getValue());
+        MessageDigest digest = newDigest();
+        for (String line : factLines)
+            update(digest, line);
+        File keyDirectory = new File(directory, key);
+        File entry = new File(keyDirectory, toHex(digest.digest()).substring(0, 16));
+        if (entry.exists())
+            return;
+        File tmp = new File(keyDirectory, entry.getName() + ".tmp-" + System.nanoTime());
+        try {
+            Files.createDirectories(tmp.toPath());
+            List<String> paths = new ArrayList<String>();
+            for (Map.Entry<File, File> file : files.entrySet()) {
+                if (!file.getKey().toPath().normalize().startsWith(root.toPath().normalize())) {
+                    log.info("Workspace is not cached, " + file.getKey() + " is outside of " + root);
+                    return;
+                }
+                String path = Util.getRelativePath(root, file.getKey()).replace(File.separatorChar, '/');
+                // merged with the user's own workspace.xml and compiler.xml, can't be shared
+                if (path.endsWith(".idea/" + WORKSPACE_FILE) || path.endsWith(".idea/" + COMPILER_FILE))
+                    continue;
+                File target = new File(new File(tmp, FILES), path);
+                Files.createDirectories(target.getParentFile().toPath());
+                Files.copy(file.getValue().toPath(), target.toPath());
+                paths.add(path);
+            }
+            Files.write(new File(tmp, MANIFEST).toPath(), paths, StandardCharsets.UTF_8);
+            Files.write(new File(tmp, FACTS).toPath(), factLines, StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // stored meanwhile by another run
+                if (!entry.exists())
+                    throw e;
+            }
+            log.info("");
+            log.info("Workspace Cache Store: " + key + "/" + entry.getName() + " (" + paths.size() + " files, " + factLines.size() + " facts)");
+        } catch (IOException e) {
+            log.warn("Can't store workspace cache entry " + entry + ": " + e.getMessage());
+        } finally {
+            delete(tmp);
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null)
+            for (File child : children)
+                delete(child);
+        file.delete();
+    }
+
+    /**
+     * Current values of facts recorded with cache entries
+     */
+    interface Facts {
+        /**
+         * @param names fact names
+         * @return name -> current value, names which are not known are left out
+         * @throws Exception can't check
+         */
+        Map<String, String> getCurrent(Set<String> names) throws Exception;
+    }
+}
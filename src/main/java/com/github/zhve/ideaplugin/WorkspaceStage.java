@@ -0,0 +1,221 @@
+package com.github.zhve.ideaplugin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Staging directory for workspace files. Files are rendered into the stage and published together by {@link #commit()}:
+ * the commit marker listing all files is written first, then every file is moved to its place.
+ * A run which fails before the marker leaves the previous workspace untouched, a commit which is interrupted or fails
+ * after the marker is rolled forward by the next run. Every run stages into its own directory under the staging root
+ * and holds a lock on it, so concurrent runs sharing the root only recover stages of runs which are gone.
+ *
+ * @since 10/19/2026
+ */
+class WorkspaceStage {
+    static final String MARKER = "commit.marker";
+    private static final String PROGRESS = "commit.progress";
+    private static final String LOCK_SUFFIX = ".lock";
+
+    private final Log log;
+    private final File directory;
+    private final FileChannel lockChannel;
+
+    /**
+     * Target file -> staged file
+     */
+    private final Map<File, File> files = new LinkedHashMap<File, File>();
+    private int counter;
+
+    /**
+     * @param log  log
+     * @param root staging root shared by all runs
+     * @throws IOException can't create the stage or recover an abandoned one
+     */
+    public WorkspaceStage(Log log, File root) throws IOException {
+        this.log = log;
+        if (!root.isDirectory() && !root.mkdirs())
+            throw new IOException("Can't create directory " + root);
+        recover(root);
+        String pid = ManagementFactory.getRuntimeMXBean().getName();
+        int i = pid.indexOf('@');
+        this.directory = new File(root, (i < 0 ? pid : pid.substring(0, i)) + "-" + System.nanoTime());
+        this.lockChannel = FileChannel.open(getLockFile(directory).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lockChannel.lock();
+            if (!directory.mkdirs())
+                throw new IOException("Can't create directory " + directory);
+        } catch (IOException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param target workspace file
+     * @return file to write instead of the target until commit
+     */
+    public synchronized File stage(File target) {
+        File staged = new File(directory, (counter++) + "-" + target.getName());
+        files.put(target.getAbsoluteFile(), staged);
+        return staged;
+    }
+
+    /**
+     * @return target file -> staged file
+     */
+    public synchronized Map<File, File> getFiles() {
+        return new LinkedHashMap<File, File>(files);
+    }
+
+    /**
+     * Publish all staged files, on failure the stage is kept with its marker for the next run to finish the commit
+     *
+     * @throws IOException can't publish
+     */
+    public synchronized void commit() throws IOException {
+        List<String> lines = new ArrayList<String>();
+        for (Map.Entry<File, File> entry : files.entrySet())
+            lines.add(entry.getValue().getAbsolutePath() + "\t" + entry.getKey().getPath());
+        Path tmp = new File(directory, MARKER + ".tmp").toPath();
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        move(tmp, new File(directory, MARKER).toPath());
+        files.clear();
+        log.info("");
+        log.info("Commit Workspace Files:");
+        publish(directory, lines);
+        release();
+    }
+
+    /**
+     * Drop the stage unless its commit has started, then it is left to the next run to roll forward
+     */
+    public synchronized void rollback() {
+        files.clear();
+        if (!new File(directory, MARKER).isFile())
+            delete(directory);
+        release();
+    }
+
+    private void release() {
+        if (!lockChannel.isOpen())
+            return;
+        if (!directory.exists())
+            getLockFile(directory).delete();
+        try {
+            lockChannel.close();
+        } catch (IOException e) {
+            log.warn("Can't release " + getLockFile(directory) + ": " + e.getMessage());
+        }
+    }
+
+    private static File getLockFile(File stage) {
+        return new File(stage.getPath() + LOCK_SUFFIX);
+    }
+
+    /**
+     * Finish commits of stages whose runs are gone, drop their incomplete stages. Stages locked by live runs are skipped.
+     */
+    private void recover(File root) throws IOException {
+        File[] stages = root.listFiles(File::isDirectory);
+        if (stages == null)
+            return;
+        for (File stage : stages) {
+            File lockFile = getLockFile(stage);
+            try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock;
+                try {
+                    lock = channel.tryLock();
+                } catch (OverlappingFileLockException e) {
+                    // a stage of this process
+                    continue;
+                }
+                if (lock == null || !stage.isDirectory())
+                    continue;
+                File marker = new File(stage, MARKER);
+                if (marker.isFile()) {
+                    log.warn("Finish interrupted commit of workspace files: " + marker);
+                    publish(stage, Files.readAllLines(marker.toPath(), StandardCharsets.UTF_8));
+                } else {
+                    delete(stage);
+                }
+                lockFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Move staged files to their targets in the order of the marker, files already moved by an interrupted commit
+     * are listed in the progress file
+     *
+     * @param stage stage directory, deleted when all files are published
+     * @param lines marker lines
+     * @throws IOException can't move a file or a staged file is missing
+     */
+    private void publish(File stage, List<String> lines) throws IOException {
+        Path progress = new File(stage, PROGRESS).toPath();
+        Set<String> published = Files.exists(progress) ? new HashSet<String>(Files.readAllLines(progress, StandardCharsets.UTF_8)) : Collections.<String>emptySet();
+        for (String line : lines) {
+            int i = line.indexOf('\t');
+            Path staged = new File(line.substring(0, i)).toPath();
+            Path target = new File(line.substring(i + 1)).toPath();
+            if (published.contains(staged.toString()))
+                continue;
+            if (!Files.exists(staged))
+                throw new IOException("Staged workspace file is missing: " + staged + ", delete " + stage + " to discard the commit");
+            Files.createDirectories(target.getParent());
+            move(staged, target);
+            Files.write(progress, Collections.singletonList(staged.toString()), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            log.info(" " + target);
+        }
+        delete(stage);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // not supported across file stores, and some platforms refuse it over an existing file
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null)
+            for (File child : children)
+                delete(child);
+        file.delete();
+    }
+}